@@ -0,0 +1,50 @@
+package com.jderda.flymanager.seats.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+
+/**
+ * Input data used by benchmarks - generated, but always the same for given parameters, so that results of different
+ * runs can be compared.
+ */
+public class BenchmarkInputs {
+
+    private static final long SEED = 42;
+    //with this seed a full plane of 30 rows has 61 window-preferring passengers - one more than window seats
+    private static final long WINDOW_SATURATED_SEED = 6;
+
+    public static String manifest(int numberOfSeatsInRow, int numberOfRows, double oversubscription) {
+        return ManifestGenerator.builder()
+                .numberOfSeatsInRow(numberOfSeatsInRow)
+                .numberOfRows(numberOfRows)
+                .oversubscription(oversubscription)
+                .seed(SEED)
+                .build()
+                .generate();
+    }
+
+    public static InputData inputData(int numberOfSeatsInRow, int numberOfRows, double oversubscription) {
+        return InputData.of(new BufferedReader(new StringReader(
+                manifest(numberOfSeatsInRow, numberOfRows, oversubscription))));
+    }
+
+    /**
+     * Full plane of singles and pairs, with every passenger preferring window seat with a chance of one in three - so
+     * that there are about as many of them as window seats.
+     */
+    public static InputData windowSaturatedInputData(int numberOfSeatsInRow, int numberOfRows) {
+        return InputData.of(new BufferedReader(new StringReader(ManifestGenerator.builder()
+                .numberOfSeatsInRow(numberOfSeatsInRow)
+                .numberOfRows(numberOfRows)
+                .groupSizeWeights(new int[] {1, 1})
+                .windowSeatPreferenceRate(1.0/3)
+                .windowSeatPreferencePerPassenger(true)
+                .seed(WINDOW_SATURATED_SEED)
+                .build()
+                .generate())));
+    }
+
+}
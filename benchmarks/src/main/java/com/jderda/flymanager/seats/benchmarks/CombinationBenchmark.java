@@ -0,0 +1,39 @@
+package com.jderda.flymanager.seats.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.jobs.Combination;
+
+/**
+ * Single step of the exhaustive search - moving to the next combination and scoring it. When all combinations are
+ * checked, the search starts over.
+ */
+@State(Scope.Benchmark)
+public class CombinationBenchmark {
+
+    @Param({"4", "8", "16"})
+    private int numberOfRows;
+
+    private CompactInputData inputData;
+    private Combination combination;
+
+    @Setup
+    public void setUp() {
+        inputData = CompactInputData.of(BenchmarkInputs.inputData(4, numberOfRows, 1.2));
+        combination = new Combination(inputData);
+    }
+
+    @Benchmark
+    public int nextAndScore() {
+        if (!combination.next()) {
+            combination = new Combination(inputData);
+        }
+        return combination.getScore();
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.jderda.flymanager.seats.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.IdenticalRowsSeatArrangementsJob;
+
+/**
+ * Exact search over row states for a narrow-body plane - a generated manifest, and one with as many window-preferring
+ * passengers as window seats, where the bounds of the search prune little and it takes far longer.
+ */
+@State(Scope.Benchmark)
+public class IdenticalRowsBenchmark {
+
+    @Param({"generated", "window-saturated"})
+    private String flight;
+
+    private InputData inputData;
+
+    @Setup
+    public void setUp() {
+        inputData = "generated".equals(flight)
+                ? BenchmarkInputs.inputData(6, 30, 1.2)
+                : BenchmarkInputs.windowSaturatedInputData(6, 30);
+    }
+
+    @Benchmark
+    public SeatsArrangement call() throws Exception {
+        return IdenticalRowsSeatArrangementsJob.builder().inputData(inputData).build().call();
+    }
+
+}
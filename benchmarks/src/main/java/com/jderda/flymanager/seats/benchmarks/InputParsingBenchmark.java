@@ -0,0 +1,45 @@
+package com.jderda.flymanager.seats.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.InputDataParser;
+
+/**
+ * Reading input data - the original line-based InputData.of and the byte-level parser on the same manifest.
+ */
+@State(Scope.Benchmark)
+public class InputParsingBenchmark {
+
+    @Param({"10", "100", "10000"})
+    private int numberOfRows;
+
+    private String manifest;
+    private byte[] manifestBytes;
+
+    @Setup
+    public void setUp() {
+        manifest = BenchmarkInputs.manifest(6, numberOfRows, 1.2);
+        manifestBytes = manifest.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public InputData inputDataOf() {
+        return InputData.of(new BufferedReader(new StringReader(manifest)));
+    }
+
+    @Benchmark
+    public InputData inputDataParser() {
+        return new InputDataParser(ByteBuffer.wrap(manifestBytes)).readInputData();
+    }
+
+}
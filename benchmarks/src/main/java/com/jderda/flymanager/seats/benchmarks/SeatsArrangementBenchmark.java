@@ -0,0 +1,90 @@
+package com.jderda.flymanager.seats.benchmarks;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangementWriter;
+import com.jderda.flymanager.seats.domain.output.SeatsRow;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+/**
+ * Reading the result - passengers of every row and printing of the whole arrangement. Output is written to a reused 
+ * buffer (or a channel that only counts bytes), so that only allocations made by printing itself are measured.
+ */
+@State(Scope.Benchmark)
+public class SeatsArrangementBenchmark {
+
+    @Param({"10", "100", "10000"})
+    private int numberOfRows;
+
+    private SeatsArrangement arrangement;
+    private CharArrayWriter writer;
+    private SeatsArrangementWriter arrangementWriter;
+    private CountingChannel channel;
+
+    @Setup
+    public void setUp() throws Exception {
+        arrangement = SimpleAssignSeatsJob.builder()
+                .inputData(BenchmarkInputs.inputData(6, numberOfRows, 1.2))
+                .build()
+                .call();
+        writer = new CharArrayWriter(numberOfRows * 64);
+        arrangementWriter = new SeatsArrangementWriter();
+        channel = new CountingChannel();
+    }
+
+    @Benchmark
+    public void getPassengers(Blackhole blackhole) {
+        for (SeatsRow row : arrangement.getRows()) {
+            blackhole.consume(row.getPassengers());
+        }
+    }
+
+    @Benchmark
+    public int print() throws IOException {
+        writer.reset();
+        arrangement.print(writer);
+        return writer.size();
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        channel.written = 0;
+        arrangementWriter.write(arrangement, channel);
+        return channel.written;
+    }
+
+    private static class CountingChannel implements WritableByteChannel {
+
+        private long written;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int bytes = source.remaining();
+            source.position(source.limit());
+            written += bytes;
+            return bytes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
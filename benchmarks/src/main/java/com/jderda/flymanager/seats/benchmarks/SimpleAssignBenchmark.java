@@ -0,0 +1,35 @@
+package com.jderda.flymanager.seats.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+/**
+ * Complete run of the simplified algorithm, from input data to arrangement - up to large generated inputs, where
+ * the cost of finding a row for every group matters the most.
+ */
+@State(Scope.Benchmark)
+public class SimpleAssignBenchmark {
+
+    @Param({"10", "100", "10000", "100000"})
+    private int numberOfRows;
+
+    private InputData inputData;
+
+    @Setup
+    public void setUp() {
+        inputData = BenchmarkInputs.inputData(6, numberOfRows, 1.2);
+    }
+
+    @Benchmark
+    public SeatsArrangement call() throws Exception {
+        return SimpleAssignSeatsJob.builder().inputData(inputData).build().call();
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.jderda.flymanager.seats;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import com.jderda.flymanager.seats.jobs.Algorithm;
+
+import lombok.Data;
+
+/**
+ * Command line arguments - path to the input as first argument, followed by flags (like -all), some of them with 
+ * a value (like -threads 4 or -anytime 500). Flags can be also given with double dash. Modes that don't read a file (like -server)
+ * can be started with flags only.
+ */
+@Data
+public class CommandLineOptions {
+
+    private final String path;
+    private final Algorithm algorithm;
+    private final Map<String, String> flags;
+
+    public static CommandLineOptions parse(String[] args) {
+        Algorithm algorithm = Algorithm.SIMPLE;
+        Map<String, String> flags = new HashMap<>();
+        String path = args[0].startsWith("-") ? null : args[0];
+        for (int i=(path == null) ? 0 : 1; i<args.length; i++) {
+            String flag = args[i].startsWith("--") ? args[i].substring(1) : args[i];
+            Optional<Algorithm> selectedAlgorithm = Algorithm.forFlag(flag);
+            if (selectedAlgorithm.isPresent()) {
+                algorithm = selectedAlgorithm.get();
+                //only algorithms with a time limit take a value, other flags are followed by anything else
+                if (!algorithm.isTimeLimited()) {
+                    continue;
+                }
+            }
+            String value = "";
+            if (i+1 < args.length && !args[i+1].startsWith("-")) {
+                value = args[++i];
+            }
+            flags.put(flag.toLowerCase(), value);
+        }
+        return new CommandLineOptions(path, algorithm, flags);
+    }
+
+    public boolean has(String flag) {
+        return flags.containsKey(flag);
+    }
+
+    public Optional<String> getValue(String flag) {
+        return Optional.ofNullable(flags.get(flag)).filter(value -> !value.isEmpty());
+    }
+
+    public int getInt(String flag, int defaultValue) {
+        return getValue(flag).map(Integer::valueOf).orElse(defaultValue);
+    }
+
+    /**
+     * Time limit given after the algorithm's flag in milliseconds (like -anytime 500), if the algorithm has one.
+     */
+    public Optional<Duration> getTimeLimit() {
+        if (!algorithm.isTimeLimited()) {
+            return Optional.empty();
+        }
+        return getValue(algorithm.getFlag()).map(millis -> Duration.ofMillis(Long.parseLong(millis)));
+    }
+
+    /**
+     * Returns the first of given flags whose value is not a whole number (like -threads x), so that it can be 
+     * reported by name before anything is started.
+     */
+    public Optional<String> findInvalidInt(String... integerFlags) {
+        for (String flag : integerFlags) {
+            Optional<String> value = getValue(flag);
+            if (value.isPresent() && !isInt(value.get())) {
+                return Optional.of(flag);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isInt(String value) {
+        try {
+            Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+}
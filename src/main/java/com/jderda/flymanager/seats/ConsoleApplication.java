@@ -2,60 +2,457 @@ package com.jderda.flymanager.seats;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
+import com.jderda.flymanager.seats.batch.BatchSolver;
+import com.jderda.flymanager.seats.cache.CachedSeatArrangementsJob;
+import com.jderda.flymanager.seats.cache.ResultCache;
 import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+import com.jderda.flymanager.seats.domain.input.WaitlistAdmission;
 import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+import com.jderda.flymanager.seats.jobs.AnytimeSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.CertifiedSeatArrangementsJob;
 import com.jderda.flymanager.seats.jobs.CheckAllPossibileSeatArrangementsJob;
-import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+import com.jderda.flymanager.seats.jobs.PortfolioSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.RepairReport;
+import com.jderda.flymanager.seats.jobs.SatisfactionUpperBound;
+import com.jderda.flymanager.seats.jobs.SeatsArrangementRepairer;
+import com.jderda.flymanager.seats.jobs.ShardResult;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+import com.jderda.flymanager.seats.metrics.SolverMetrics.Phase;
+import com.jderda.flymanager.seats.server.SeatsArrangementServer;
 
 public class ConsoleApplication {
     
     private static final String ERROR_CANNOT_READ_FILE = "Cannot read specified file";
-    private static final String ERROR_INVALID_ARGUMENTS = "You have to specify exactly one argument";
+    private static final String ERROR_INVALID_ARGUMENTS =
+            "Usage: java -jar solution.jar /path/to/input/data.txt [algorithm] [options]";
     private static final String ERROR_INVALID_PATH = "Specified path does not exist or is not a file";
+    private static final String ERROR_MISSING_PATH = "Path to the input file has to be given as the first argument";
+    private static final String ERROR_INVALID_NUMBER = "Option has to be followed by a whole number";
+    private static final String ERROR_NO_INPUTS = "No input files found";
+    private static final String ERROR_INVALID_GENERATOR_OPTIONS = "Invalid generator options";
+    private static final String ERROR_CANNOT_WRITE_FILE = "Cannot write to specified file";
+    private static final String ERROR_CANNOT_START_SERVER = "Cannot start server";
+    private static final String ERROR_CANNOT_READ_CACHE = "Cannot read cache file, starting with empty cache";
+    private static final String ERROR_CANNOT_WRITE_CACHE = "Cannot write cache file";
+    private static final String ERROR_INVALID_SHARD = "Shard has to be given as i/N, with i between 1 and N";
+    private static final String ERROR_CANNOT_MERGE = "Cannot merge shard results";
+    private static final String ERROR_CANNOT_REPAIR = "Cannot repair seats arrangement";
+
+    private static final String PROVEN_OPTIMAL = "Arrangement is optimal";
+    private static final String EXACT_SEARCH_SKIPPED = "Arrangement reaches the upper bound, so it's optimal without exact search";
+    private static final String NOT_PROVEN_OPTIMAL = "Arrangement is the best found within time limit, but may not be optimal";
+
+    private static final int DEFAULT_SERVER_PORT = 8080;
+    private static final int DEFAULT_SERVER_QUEUE_SIZE = 64;
+    private static final int DEFAULT_SERVER_TIMEOUT_MILLIS = 10000;
+
+    private static final String SHARD_RESULT_EXTENSION = ".shard";
+
+    private static final String[] OTHER_MODES = {
+            "/path/to/flights -batch [algorithm] [-output /path] [-threads N]",
+            "/path/to/input/data.txt -shard i/N [-result /path] | -merge [pattern]",
+            "/path/to/input/data.txt -repair /path/to/arrangement.txt [-remove ids] [-add ids]",
+            "/path/to/output.txt -generate [-seats N] [-rows N] [-oversubscription X] [-window X] [-groups weights]",
+            "-server [port] [algorithm] [-threads N] [-queue N] [-timeout ms] [-max-request N]"};
+
+    private static final String[] INTEGER_OPTIONS = {"-server", "-threads", "-queue", "-timeout", "-max-request", 
+            "-anytime", "-portfolio", "-admission", "-cache-size", "-checkpoint-interval", "-seats", "-rows"};
 
     public static void main(String[] args) {
         if (args.length < 1) {
-            System.out.println(ERROR_INVALID_ARGUMENTS);
+            printUsage();
+            System.exit(0);
+        }
+        CommandLineOptions options = CommandLineOptions.parse(args);
+        //only the server can be started without a path
+        if (options.getPath() == null && !options.has("-server")) {
+            System.out.println(ERROR_MISSING_PATH);
             System.exit(0);
         }
-        String path = args[0];
-        File file = new File(path);
+        Optional<String> invalidOption = options.findInvalidInt(INTEGER_OPTIONS);
+        if (invalidOption.isPresent()) {
+            System.out.println(ERROR_INVALID_NUMBER + ": " + invalidOption.get() + " " 
+                    + options.getValue(invalidOption.get()).get());
+            System.exit(0);
+        }
+        OutputStreamWriter outputWriter = new OutputStreamWriter(System.out);
+        try {
+            if (options.has("-server")) {
+                startServer(options);
+            } else if (options.has("-generate")) {
+                generate(options);
+            } else if (options.has("-batch")) {
+                solveBatch(options, outputWriter);
+            } else if (options.has("-shard")) {
+                solveShard(options);
+            } else if (options.has("-merge")) {
+                mergeShards(options, outputWriter);
+            } else if (options.has("-repair")) {
+                repair(options, outputWriter);
+            } else {
+                solve(options, outputWriter);
+            }
+        } finally {
+            try {
+                outputWriter.flush();
+                if (options.has("-stats")) {
+                    printStats();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Short summary of the modes and algorithms - all their options are described in README.MD.
+     */
+    private static void printUsage() {
+        System.out.println(ERROR_INVALID_ARGUMENTS);
+        System.out.println("Algorithms: " + Arrays.stream(Algorithm.values())
+                .map(algorithm -> algorithm.getFlag() + (algorithm.isTimeLimited() ? " [ms]" : ""))
+                .collect(Collectors.joining(", ")) + " (" + Algorithm.SIMPLE.getFlag() + " by default)");
+        System.out.println("Other modes:");
+        for (String mode : OTHER_MODES) {
+            System.out.println("  java -jar solution.jar " + mode);
+        }
+        System.out.println("See README.MD for all options");
+    }
+
+    /**
+     * Input file given as the first argument - the application stops if it does not exist.
+     */
+    private static File getInputFile(CommandLineOptions options) {
+        File file = new File(options.getPath());
         if (!file.exists() || !file.isFile()) {
             System.out.println(ERROR_INVALID_PATH);
             System.exit(0);
         }
+        return file;
+    }
+
+    private static void printStats() throws IOException {
+        OutputStreamWriter errorWriter = new OutputStreamWriter(System.err);
+        SolverMetrics.getInstance().print(errorWriter);
+        errorWriter.flush();
+    }
+
+    private static void solve(CommandLineOptions options, OutputStreamWriter outputWriter) {
+        File file = getInputFile(options);
         
-        OutputStreamWriter outputWriter = new OutputStreamWriter(System.out);
-        try (FileReader reader = new FileReader(file)) {
-            BufferedReader bufferedReader = new BufferedReader(reader);
-            
-            InputData data = InputData.of(bufferedReader);
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        try {
+            long start = System.nanoTime();
+            InputData data = options.has("-admission") ? admit(options, file.toPath()) : InputData.of(file.toPath());
+            metrics.recordLatency(Phase.PARSE, System.nanoTime()-start);
             
-            Callable<SeatsArrangement> job;
-            if (args.length > 1 && args[1].equalsIgnoreCase("-all")) {
-                job = CheckAllPossibileSeatArrangementsJob.builder()
+            if (options.getAlgorithm() == Algorithm.ANYTIME) {
+                AnytimeSeatArrangementsJob job = AnytimeSeatArrangementsJob.builder()
                         .inputData(data)
+                        .timeLimit(options.getTimeLimit().orElse(null))
                         .build();
-            } else {
-                job = SimpleAssignSeatsJob.builder()
+                print(metrics.measure(job).call(), outputWriter);
+                System.err.println(job.isProvenOptimal() ? PROVEN_OPTIMAL : NOT_PROVEN_OPTIMAL);
+                return;
+            }
+            if (options.getAlgorithm() == Algorithm.PORTFOLIO) {
+                PortfolioSeatArrangementsJob job = PortfolioSeatArrangementsJob.builder()
                         .inputData(data)
+                        .timeLimit(options.getTimeLimit().orElse(null))
                         .build();
+                print(metrics.measure(job).call(), outputWriter);
+                System.err.println(job.isProvenOptimal() ? PROVEN_OPTIMAL : NOT_PROVEN_OPTIMAL);
+                return;
             }
-            job.call().print(outputWriter);
+            if (options.getAlgorithm() == Algorithm.CERTIFIED) {
+                CertifiedSeatArrangementsJob job = CertifiedSeatArrangementsJob.builder()
+                        .inputData(data)
+                        .build();
+                Optional<ResultCache> cache = openCache(options);
+                Callable<SeatsArrangement> cachedJob = cache.isPresent()
+                        ? CachedSeatArrangementsJob.builder()
+                                .inputData(data)
+                                .algorithm(Algorithm.CERTIFIED)
+                                .job(job)
+                                .cache(cache.get())
+                                .build()
+                        : job;
+                SeatsArrangement arrangement = metrics.measure(cachedJob).call();
+                cache.ifPresent(ConsoleApplication::closeCache);
+                print(arrangement, outputWriter);
+                //cached arrangement is optimal as well, but the bound has to be computed for it
+                printUpperBound((job.getUpperBound() != null) ? job.getUpperBound() : SatisfactionUpperBound.of(data),
+                        arrangement);
+                System.err.println(job.isExactSearchSkipped() ? EXACT_SEARCH_SKIPPED : PROVEN_OPTIMAL);
+                return;
+            }
+            SeatsArrangement arrangement;
+            if (options.getAlgorithm() == Algorithm.ALL_PERMUTATIONS && options.has("-checkpoint")) {
+                arrangement = metrics.measure(createExhaustiveJob(options, data)).call();
+            } else {
+                Optional<ResultCache> cache = openCache(options);
+                Callable<SeatsArrangement> job = cache.isPresent()
+                        ? CachedSeatArrangementsJob.builder()
+                                .inputData(data)
+                                .algorithm(options.getAlgorithm())
+                                .timeLimit(options.getTimeLimit().orElse(null))
+                                .cache(cache.get())
+                                .build()
+                        : options.getAlgorithm().createJob(data, options.getTimeLimit().orElse(null));
+                arrangement = metrics.measure(job).call();
+                cache.ifPresent(ConsoleApplication::closeCache);
+            }
+            print(arrangement, outputWriter);
+            if (options.has("-bound")) {
+                printUpperBound(SatisfactionUpperBound.of(data), arrangement);
+            }
+        } catch (TimeoutException e) {
+            System.out.println(e.getMessage());
         } catch (Exception e) {
             System.out.println(ERROR_CANNOT_READ_FILE);
             e.printStackTrace();
-        } finally {
-            try {
-                outputWriter.flush();
-            } catch (IOException e) {
-                e.printStackTrace();
+        }
+    }
+
+    private static void solveShard(CommandLineOptions options) {
+        File file = getInputFile(options);
+        int shard;
+        int numberOfShards;
+        try {
+            String[] values = options.getValue("-shard").orElse("").split("/");
+            shard = Integer.parseInt(values[0]);
+            numberOfShards = Integer.parseInt(values[1]);
+        } catch (RuntimeException e) {
+            System.out.println(ERROR_INVALID_SHARD);
+            return;
+        }
+        if (shard < 1 || shard > numberOfShards) {
+            System.out.println(ERROR_INVALID_SHARD);
+            return;
+        }
+
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        try {
+            long start = System.nanoTime();
+            InputData data = InputData.of(file.toPath());
+            metrics.recordLatency(Phase.PARSE, System.nanoTime()-start);
+
+            CheckAllPossibileSeatArrangementsJob job = createExhaustiveJob(options, data);
+            start = System.nanoTime();
+            ShardResult result = job.searchShard(shard, numberOfShards);
+            metrics.recordLatency(Phase.SOLVE, System.nanoTime()-start);
+            Path resultFile = options.getValue("-result")
+                    .map(Paths::get)
+                    .orElse(Paths.get(file.getPath() + "." + shard + "-of-" + numberOfShards + SHARD_RESULT_EXTENSION));
+            result.write(resultFile);
+            System.out.println(String.format("Shard %d/%d: best score %d, written to %s", 
+                    shard, numberOfShards, result.getScore(), resultFile));
+        } catch (Exception e) {
+            System.out.println(ERROR_CANNOT_READ_FILE);
+            e.printStackTrace();
+        }
+    }
+
+    private static CheckAllPossibileSeatArrangementsJob createExhaustiveJob(CommandLineOptions options, InputData data) {
+        return CheckAllPossibileSeatArrangementsJob.builder()
+                .inputData(data)
+                .checkpointFile(options.getValue("-checkpoint").map(Paths::get).orElse(null))
+                .checkpointInterval(options.getValue("-checkpoint-interval")
+                        .map(seconds -> Duration.ofSeconds(Long.parseLong(seconds)))
+                        .orElse(null))
+                .resume(options.has("-resume"))
+                .build();
+    }
+
+    private static void mergeShards(CommandLineOptions options, OutputStreamWriter outputWriter) {
+        File file = getInputFile(options);
+        try {
+            InputData data = InputData.of(file.toPath());
+            List<Path> resultFiles = BatchSolver.findInputs(options.getValue("-merge")
+                    .orElse(file.getPath() + ".*" + SHARD_RESULT_EXTENSION));
+            List<ShardResult> results = new ArrayList<>();
+            for (Path resultFile : resultFiles) {
+                results.add(ShardResult.read(resultFile));
             }
+            print(ShardResult.merge(results).toSeatsArrangement(data), outputWriter);
+        } catch (IllegalArgumentException e) {
+            System.out.println(ERROR_CANNOT_MERGE + ": " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println(ERROR_CANNOT_MERGE);
+            e.printStackTrace();
+        }
+    }
+
+    private static void repair(CommandLineOptions options, OutputStreamWriter outputWriter) {
+        File file = getInputFile(options);
+        Optional<Path> arrangementFile = options.getValue("-repair").map(Paths::get);
+        if (!arrangementFile.isPresent() || !Files.isRegularFile(arrangementFile.get())) {
+            System.out.println(ERROR_INVALID_PATH);
+            System.exit(0);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(arrangementFile.get(), StandardCharsets.US_ASCII)) {
+            InputData data = InputData.of(file.toPath());
+            SeatsArrangementRepairer repairer = SeatsArrangementRepairer.builder()
+                    .inputData(data)
+                    .seatsArrangement(SeatsArrangement.of(reader, data))
+                    .build();
+            RepairReport report = repairer.repair(
+                    options.getValue("-remove").map(ConsoleApplication::parsePassengerIds).orElse(Collections.emptyList()),
+                    options.getValue("-add").map(ConsoleApplication::parsePassengerIds).orElse(Collections.emptyList()));
+            print(repairer.getSeatsArrangement(), outputWriter);
+            System.err.println(String.format("Rows repaired: %d, passengers moved: %d, boarded: %d, left: %d", 
+                    report.getRepairedRows(), report.getMovedPassengers(), report.getBoardedPassengers(), 
+                    report.getDeboardedPassengers()));
+        } catch (IllegalArgumentException e) {
+            System.out.println(ERROR_CANNOT_REPAIR + ": " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println(ERROR_CANNOT_READ_FILE);
+            e.printStackTrace();
+        }
+    }
+
+    private static List<Integer> parsePassengerIds(String ids) {
+        return Arrays.stream(ids.split(","))
+                .map(id -> Integer.valueOf(id.trim()))
+                .collect(Collectors.toList());
+    }
+
+    private static InputData admit(CommandLineOptions options, Path path) {
+        WaitlistAdmission admission = WaitlistAdmission.builder()
+                .slack(options.getValue("-admission").map(Integer::valueOf).orElse(null))
+                .build();
+        InputData data = admission.admit(path).toInputData();
+        System.err.println(String.format("Admitted %d of %d groups", 
+                admission.getGroupsAdmitted(), admission.getGroupsRead()));
+        return data;
+    }
+
+    private static void printUpperBound(SatisfactionUpperBound upperBound, SeatsArrangement arrangement) {
+        System.err.println(String.format("Upper bound: %d satisfied passengers, gap: %d", 
+                upperBound.getSatisfiedPassengers(), upperBound.getGap(arrangement)));
+    }
+
+    private static void print(SeatsArrangement arrangement, OutputStreamWriter outputWriter) throws IOException {
+        long start = System.nanoTime();
+        arrangement.print(outputWriter);
+        SolverMetrics.getInstance().recordLatency(Phase.PRINT, System.nanoTime()-start);
+    }
+
+    private static void generate(CommandLineOptions options) {
+        ManifestGenerator generator;
+        try {
+            generator = ManifestGenerator.builder()
+                    .numberOfSeatsInRow(options.getValue("-seats").map(Integer::valueOf).orElse(null))
+                    .numberOfRows(options.getValue("-rows").map(Integer::valueOf).orElse(null))
+                    .groupSizeWeights(options.getValue("-groups").map(ConsoleApplication::parseWeights).orElse(null))
+                    .windowSeatPreferenceRate(options.getValue("-window").map(Double::valueOf).orElse(null))
+                    .windowSeatPreferencePerPassenger(options.has("-window-per-passenger"))
+                    .oversubscription(options.getValue("-oversubscription").map(Double::valueOf).orElse(null))
+                    .seed(options.getValue("-seed").map(Long::valueOf).orElse(null))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            System.out.println(ERROR_INVALID_GENERATOR_OPTIONS + ": " + e.getMessage());
+            return;
+        }
+        try {
+            generator.write(Paths.get(options.getPath()));
+        } catch (Exception e) {
+            System.out.println(ERROR_CANNOT_WRITE_FILE);
+            e.printStackTrace();
+        }
+    }
+
+    private static int[] parseWeights(String weights) {
+        return Arrays.stream(weights.split(","))
+                .mapToInt(weight -> Integer.parseInt(weight.trim()))
+                .toArray();
+    }
+
+    private static void startServer(CommandLineOptions options) {
+        try {
+            SeatsArrangementServer server = SeatsArrangementServer.builder()
+                    .port(options.getInt("-server", DEFAULT_SERVER_PORT))
+                    .threads(options.getInt("-threads", Runtime.getRuntime().availableProcessors()))
+                    .queueSize(options.getInt("-queue", DEFAULT_SERVER_QUEUE_SIZE))
+                    .timeoutMillis(options.getInt("-timeout", DEFAULT_SERVER_TIMEOUT_MILLIS))
+                    .defaultAlgorithm(options.getAlgorithm())
+                    .timeLimit(options.getTimeLimit().orElse(null))
+                    .maxRequestSize(options.getValue("-max-request").map(Integer::valueOf).orElse(null))
+                    .build();
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            SolverMetrics.getInstance().register();
+            server.start();
+            System.out.println("Listening on port " + server.getPort());
+        } catch (IOException e) {
+            System.out.println(ERROR_CANNOT_START_SERVER);
+            e.printStackTrace();
+        }
+    }
+
+    private static void solveBatch(CommandLineOptions options, OutputStreamWriter outputWriter) {
+        try {
+            SolverMetrics.getInstance().register();
+            Optional<ResultCache> cache = openCache(options);
+            BatchSolver solver = BatchSolver.builder()
+                    .algorithm(options.getAlgorithm())
+                    .timeLimit(options.getTimeLimit().orElse(null))
+                    .threads(options.getInt("-threads", Runtime.getRuntime().availableProcessors()))
+                    .outputDirectory(options.getValue("-output").map(Paths::get).orElse(null))
+                    .cache(cache.orElse(null))
+                    .build();
+            List<Path> inputs = BatchSolver.findInputs(options.getPath());
+            if (inputs.isEmpty()) {
+                System.out.println(ERROR_NO_INPUTS);
+                return;
+            }
+            solver.solve(inputs).print(outputWriter);
+            cache.ifPresent(ConsoleApplication::closeCache);
+        } catch (Exception e) {
+            System.out.println(ERROR_CANNOT_READ_FILE);
+            e.printStackTrace();
+        }
+    }
+
+    private static Optional<ResultCache> openCache(CommandLineOptions options) {
+        if (!options.has("-cache")) {
+            return Optional.empty();
+        }
+        ResultCache cache = ResultCache.builder()
+                .file(options.getValue("-cache").map(Paths::get).orElse(null))
+                .capacity(options.getValue("-cache-size").map(Integer::valueOf).orElse(null))
+                .build();
+        try {
+            cache.load();
+        } catch (IOException e) {
+            System.err.println(ERROR_CANNOT_READ_CACHE);
+        }
+        return Optional.of(cache);
+    }
+
+    private static void closeCache(ResultCache cache) {
+        System.err.println(String.format("Cache: %d hits, %d misses", cache.getHits(), cache.getMisses()));
+        try {
+            cache.save();
+        } catch (IOException e) {
+            System.err.println(ERROR_CANNOT_WRITE_CACHE);
         }
     }
     
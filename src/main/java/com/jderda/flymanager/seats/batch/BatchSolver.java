@@ -0,0 +1,140 @@
+package com.jderda.flymanager.seats.batch;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.jderda.flymanager.seats.cache.CachedSeatArrangementsJob;
+import com.jderda.flymanager.seats.cache.ResultCache;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangementWriter;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+import com.jderda.flymanager.seats.metrics.SolverMetrics.Phase;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Solves many flights in one run - every input file is parsed and solved on a bounded pool of workers, and
+ * the arrangement is written to a file with the same name and .out extension (next to the input, unless 
+ * output directory is given). Failure of a single flight is reported and doesn't stop the others.
+ * If a cache is given, flights equivalent to ones already solved are not solved again.
+ */
+@Builder
+@RequiredArgsConstructor
+public class BatchSolver {
+
+    private static final String INPUT_EXTENSION = ".txt";
+    private static final String OUTPUT_EXTENSION = ".out";
+    private static final int QUEUED_TASKS_PER_THREAD = 4;
+    private static final ThreadLocal<SeatsArrangementWriter> WRITERS = 
+            ThreadLocal.withInitial(SeatsArrangementWriter::new);
+
+    private final Algorithm algorithm;
+    private final Duration timeLimit;
+    private final Integer threads;
+    private final Path outputDirectory;
+    private final ResultCache cache;
+
+    /**
+     * Returns input (.txt) files in given directory, or files matching given glob (like /data/flights/*.in) - 
+     * arrangements written by previous runs, shard results and other files are skipped.
+     */
+    public static List<Path> findInputs(String directoryOrGlob) throws IOException {
+        Path path = Paths.get(directoryOrGlob);
+        Path directory;
+        PathMatcher matcher;
+        if (Files.isDirectory(path)) {
+            directory = path;
+            matcher = file -> isInputFile(file.getFileName().toString());
+        } else {
+            directory = (path.getParent() != null) ? path.getParent() : Paths.get(".");
+            PathMatcher globMatcher = FileSystems.getDefault().getPathMatcher("glob:" + path.getFileName());
+            matcher = file -> globMatcher.matches(file.getFileName());
+        }
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && matcher.matches(file)) {
+                    result.add(file);
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static boolean isInputFile(String fileName) {
+        return fileName.endsWith(INPUT_EXTENSION) && !fileName.startsWith(".");
+    }
+
+    public BatchSummary solve(List<Path> inputs) throws InterruptedException {
+        int numberOfThreads = (threads != null) ? threads : Runtime.getRuntime().availableProcessors();
+        //bounded queue - when it's full, the submitting thread solves the flight itself
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0, TimeUnit.SECONDS, 
+                new ArrayBlockingQueue<>(numberOfThreads*QUEUED_TASKS_PER_THREAD), 
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        long[] solveLatencies = new long[inputs.size()];
+        long start = System.nanoTime();
+        for (int i=0; i<inputs.size(); i++) {
+            int index = i;
+            executor.execute(() -> solveLatencies[index] = solve(inputs.get(index)));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        return BatchSummary.of(solveLatencies, System.nanoTime()-start);
+    }
+
+    /**
+     * Returns time spent in the solver (in nanoseconds), or -1 if the flight could not be solved.
+     */
+    private long solve(Path input) {
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        try {
+            long parseStart = System.nanoTime();
+            InputData data = InputData.of(input);
+            long start = System.nanoTime();
+            metrics.recordLatency(Phase.PARSE, start-parseStart);
+            Callable<SeatsArrangement> job = (cache != null)
+                    ? CachedSeatArrangementsJob.builder().inputData(data).algorithm(algorithm)
+                            .timeLimit(timeLimit).cache(cache).build()
+                    : algorithm.createJob(data, timeLimit);
+            SeatsArrangement arrangement = metrics.measure(job).call();
+            long latency = System.nanoTime()-start;
+            try (FileChannel output = FileChannel.open(getOutputPath(input), StandardOpenOption.CREATE, 
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                WRITERS.get().write(arrangement, output);
+            }
+            metrics.recordLatency(Phase.PRINT, System.nanoTime()-start-latency);
+            return latency;
+        } catch (Exception e) {
+            System.err.println("Cannot solve " + input + ": " + e);
+            return BatchSummary.FAILED;
+        }
+    }
+
+    private Path getOutputPath(Path input) {
+        String fileName = input.getFileName().toString();
+        int extensionStart = fileName.lastIndexOf('.');
+        String outputName = ((extensionStart > 0) ? fileName.substring(0, extensionStart) : fileName) + OUTPUT_EXTENSION;
+        Path directory = (outputDirectory != null) ? outputDirectory : input.toAbsolutePath().getParent();
+        return directory.resolve(outputName);
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.jderda.flymanager.seats.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import lombok.Data;
+
+@Data
+public class BatchSummary {
+
+    static final long FAILED = -1;
+
+    private final int solved;
+    private final int failed;
+    private final long elapsedNanos;
+    private final long[] sortedSolveLatencies;
+
+    static BatchSummary of(long[] solveLatencies, long elapsedNanos) {
+        long[] successful = Arrays.stream(solveLatencies).filter(latency -> latency != FAILED).sorted().toArray();
+        return new BatchSummary(successful.length, solveLatencies.length-successful.length, elapsedNanos, successful);
+    }
+
+    public double getFlightsPerSecond() {
+        return (solved+failed) / (elapsedNanos/1e9);
+    }
+
+    /**
+     * Nearest-rank percentile of solve latency, in milliseconds.
+     */
+    public double getSolveLatencyPercentile(double percentile) {
+        if (sortedSolveLatencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile/100*sortedSolveLatencies.length);
+        return sortedSolveLatencies[Math.max(0, rank-1)] / 1e6;
+    }
+
+    public void print(Writer writer) throws IOException {
+        writer.append(String.format("Flights: %d solved, %d failed in %.3f s (%.1f flights/s)\n", 
+                solved, failed, elapsedNanos/1e9, getFlightsPerSecond()));
+        writer.append(String.format("Solve latency: p50 %.3f ms, p99 %.3f ms\n", 
+                getSolveLatencyPercentile(50), getSolveLatencyPercentile(99)));
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.jderda.flymanager.seats.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+
+import lombok.Builder;
+
+/**
+ * Returns arrangement from the cache if an equivalent manifest was already solved with the same algorithm, and
+ * runs the algorithm's job (adding its result to the cache) otherwise. Algorithms that are not exact are always run,
+ * as their result depends on the order of groups. Instead of a new job of the algorithm, a given one can be run on
+ * a cache miss - so that its own results (like the bound of the certified job) can be read afterwards.
+ */
+public class CachedSeatArrangementsJob implements Callable<SeatsArrangement> {
+
+    private final InputData inputData;
+    private final Algorithm algorithm;
+    private final Duration timeLimit;
+    private final Callable<SeatsArrangement> job;
+    private final ResultCache cache;
+
+    private boolean cacheHit;
+
+    @Builder
+    public CachedSeatArrangementsJob(InputData inputData, Algorithm algorithm, Duration timeLimit, 
+            Callable<SeatsArrangement> job, ResultCache cache) {
+        this.inputData = inputData;
+        this.algorithm = (algorithm != null) ? algorithm : Algorithm.SIMPLE;
+        this.timeLimit = timeLimit;
+        this.job = job;
+        this.cache = cache;
+    }
+
+    @Override
+    public SeatsArrangement call() throws Exception {
+        if (!algorithm.isExact()) {
+            return solve();
+        }
+        CanonicalManifest manifest = new CanonicalManifest(inputData);
+        Optional<SeatsArrangement> cached = cache.get(algorithm, manifest);
+        cacheHit = cached.isPresent();
+        if (cacheHit) {
+            return cached.get();
+        }
+        SeatsArrangement arrangement = solve();
+        cache.put(algorithm, manifest, arrangement);
+        return arrangement;
+    }
+
+    private SeatsArrangement solve() throws Exception {
+        return ((job != null) ? job : algorithm.createJob(inputData, timeLimit)).call();
+    }
+
+    public boolean isCacheHit() {
+        return cacheHit;
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.jderda.flymanager.seats.cache;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+
+import lombok.Getter;
+
+/**
+ * Manifest with groups and passengers numbered in canonical order, the same for all manifests with the same
+ * fingerprint. Groups are sorted by kind (ties kept in input order), and passengers follow their groups, with
+ * window-preferring ones first - so passenger with given canonical number has the same window preference in every
+ * equivalent manifest.
+ */
+class CanonicalManifest {
+
+    @Getter
+    private final CompactInputData inputData;
+    @Getter
+    private final ManifestFingerprint fingerprint;
+    private final int[] groupAtPosition;
+    private final int[] positionOfGroup;
+    private final int[] passengerAtPosition;
+    private final int[] positionOfPassenger;
+    private final int[] groupOfPassenger;
+
+    CanonicalManifest(InputData data) {
+        inputData = CompactInputData.of(data);
+        int[] sizes = inputData.getGroupSizes();
+        int[] windowCounts = inputData.getWindowCounts();
+        int[] offsets = inputData.getGroupOffsets();
+        int numberOfGroups = inputData.getNumberOfGroups();
+        groupAtPosition = IntStream.range(0, numberOfGroups)
+                .boxed()
+                .sorted(Comparator.comparingLong(group -> ManifestFingerprint.groupKind(sizes[group], windowCounts[group])))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        positionOfGroup = new int[numberOfGroups];
+        long[] groupKinds = new long[numberOfGroups];
+        for (int position=0; position<numberOfGroups; position++) {
+            int group = groupAtPosition[position];
+            positionOfGroup[group] = position;
+            groupKinds[position] = ManifestFingerprint.groupKind(sizes[group], windowCounts[group]);
+        }
+        fingerprint = new ManifestFingerprint(inputData.getNumberOfRows(), inputData.getNumberOfSeatsInRow(), groupKinds);
+
+        int numberOfPassengers = offsets[numberOfGroups];
+        passengerAtPosition = new int[numberOfPassengers];
+        positionOfPassenger = new int[numberOfPassengers];
+        groupOfPassenger = new int[numberOfPassengers];
+        int nextPosition = 0;
+        for (int group : groupAtPosition) {
+            for (boolean window : new boolean[] {true, false}) {
+                for (int passenger=offsets[group]; passenger<offsets[group+1]; passenger++) {
+                    if (inputData.getWindowSeatPreferences()[passenger] == window) {
+                        passengerAtPosition[nextPosition] = passenger;
+                        positionOfPassenger[passenger] = nextPosition++;
+                        groupOfPassenger[passenger] = group;
+                    }
+                }
+            }
+        }
+    }
+
+    int getGroupAtPosition(int position) {
+        return groupAtPosition[position];
+    }
+
+    int getPositionOfGroup(int group) {
+        return positionOfGroup[group];
+    }
+
+    int getPassengerAtPosition(int position) {
+        return passengerAtPosition[position];
+    }
+
+    int getPositionOfPassenger(int passenger) {
+        return positionOfPassenger[passenger];
+    }
+
+    int getGroupOfPassenger(int passenger) {
+        return groupOfPassenger[passenger];
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.jderda.flymanager.seats.cache;
+
+import lombok.Data;
+
+/**
+ * Identifies manifests that are the same up to passenger ids and order of groups - plane dimensions and sorted
+ * group kinds (size in high 32 bits, number of window-preferring passengers in low 32 bits). All manifests with
+ * the same fingerprint have the same best arrangements, with passengers swapped between equivalent groups.
+ */
+@Data
+public class ManifestFingerprint {
+
+    private final int numberOfRows;
+    private final int numberOfSeatsInRow;
+    private final long[] groupKinds;
+
+    static long groupKind(int size, int windowCount) {
+        return ((long) size << 32) | windowCount;
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.jderda.flymanager.seats.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.jderda.flymanager.seats.domain.input.AbstractGroup;
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsRow;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Arrangements already found by the solvers, for manifests that differ only in passenger ids and order of groups
+ * (see {@link ManifestFingerprint}). Arrangement is kept in canonical form - every row is a list of canonical group
+ * numbers, or (negated) canonical passenger numbers of single passengers seated outside their groups - and is built
+ * back with passengers of the manifest it's requested for, so it has the same satisfaction as the one cached.
+ * <p>
+ * Only arrangements of exact algorithms are kept - heuristics depend on the order of groups, so their arrangement
+ * for a manifest with groups in other order could be different (and worse or better). Cache keeps given number of
+ * most recently used arrangements (per algorithm, as they don't give the same results), and can be saved to and 
+ * loaded from a file, to be reused across runs. All methods are thread-safe.
+ */
+public class ResultCache {
+
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int FILE_HEADER = 0x53454154;
+    private static final int FILE_VERSION = 1;
+
+    private final int capacity;
+    private final Path file;
+    private final Map<CacheKey, int[][]> arrangements;
+    private long hits;
+    private long misses;
+
+    @Builder
+    public ResultCache(Integer capacity, Path file) {
+        this.capacity = (capacity != null) ? capacity : DEFAULT_CAPACITY;
+        this.file = file;
+        this.arrangements = new LinkedHashMap<CacheKey, int[][]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, int[][]> eldest) {
+                return size() > ResultCache.this.capacity;
+            }
+        };
+    }
+
+    public Optional<SeatsArrangement> get(Algorithm algorithm, InputData inputData) {
+        return get(algorithm, new CanonicalManifest(inputData));
+    }
+
+    public void put(Algorithm algorithm, InputData inputData, SeatsArrangement arrangement) {
+        put(algorithm, new CanonicalManifest(inputData), arrangement);
+    }
+
+    synchronized Optional<SeatsArrangement> get(Algorithm algorithm, CanonicalManifest manifest) {
+        if (!algorithm.isExact()) {
+            return Optional.empty();
+        }
+        int[][] rows = arrangements.get(new CacheKey(algorithm, manifest.getFingerprint()));
+        if (rows == null) {
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(toArrangement(rows, manifest));
+    }
+
+    void put(Algorithm algorithm, CanonicalManifest manifest, SeatsArrangement arrangement) {
+        if (!algorithm.isExact()) {
+            return;
+        }
+        int[][] rows = toCanonicalRows(arrangement, manifest);
+        synchronized (this) {
+            arrangements.put(new CacheKey(algorithm, manifest.getFingerprint()), rows);
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return arrangements.size();
+    }
+
+    private static int[][] toCanonicalRows(SeatsArrangement arrangement, CanonicalManifest manifest) {
+        CompactInputData inputData = manifest.getInputData();
+        Map<Integer, Integer> passengerIndexes = new HashMap<>();
+        for (int passenger=0; passenger<inputData.getPassengerIds().length; passenger++) {
+            passengerIndexes.put(inputData.getPassengerIds()[passenger], passenger);
+        }
+        List<SeatsRow> rows = arrangement.getRows();
+        int[][] result = new int[rows.size()][];
+        for (int row=0; row<rows.size(); row++) {
+            List<Integer> entries = new ArrayList<>();
+            for (AbstractGroup group : rows.get(row).getGroups()) {
+                if (group.getOccupiedSeats() == 0) {
+                    continue;
+                }
+                Integer passenger = passengerIndexes.get(group.getPassengers().get(0).getId());
+                if (passenger == null) {
+                    throw new IllegalArgumentException("Arrangement has passengers that are not in the manifest");
+                }
+                entries.add((group instanceof Passenger) 
+                        ? ~manifest.getPositionOfPassenger(passenger) 
+                        : manifest.getPositionOfGroup(manifest.getGroupOfPassenger(passenger)));
+            }
+            result[row] = entries.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+    }
+
+    private static SeatsArrangement toArrangement(int[][] canonicalRows, CanonicalManifest manifest) {
+        CompactInputData inputData = manifest.getInputData();
+        List<SeatsRow> rows = new ArrayList<>(canonicalRows.length);
+        for (int[] entries : canonicalRows) {
+            SeatsRow row = new SeatsRow(inputData.getNumberOfSeatsInRow());
+            for (int entry : entries) {
+                row.add((entry >= 0) 
+                        ? inputData.toGroup(manifest.getGroupAtPosition(entry)) 
+                        : inputData.toPassenger(manifest.getPassengerAtPosition(~entry)));
+            }
+            rows.add(row);
+        }
+        return SeatsArrangement.builder().rows(rows).build();
+    }
+
+    /**
+     * Replaces cached arrangements with ones saved in the file, if it exists. Entries for algorithms that are no
+     * longer available, or not exact, are skipped.
+     */
+    public synchronized void load() throws IOException {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        arrangements.clear();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != FILE_HEADER || input.readInt() != FILE_VERSION) {
+                throw new IOException("Not a result cache file: " + file);
+            }
+            int numberOfEntries = input.readInt();
+            for (int i=0; i<numberOfEntries; i++) {
+                String algorithmName = input.readUTF();
+                int numberOfRows = input.readInt();
+                int numberOfSeatsInRow = input.readInt();
+                long[] groupKinds = new long[input.readInt()];
+                for (int j=0; j<groupKinds.length; j++) {
+                    groupKinds[j] = input.readLong();
+                }
+                int[][] rows = new int[input.readInt()][];
+                for (int row=0; row<rows.length; row++) {
+                    rows[row] = new int[input.readInt()];
+                    for (int j=0; j<rows[row].length; j++) {
+                        rows[row][j] = input.readInt();
+                    }
+                }
+                for (Algorithm algorithm : Algorithm.values()) {
+                    if (algorithm.name().equals(algorithmName) && algorithm.isExact()) {
+                        ManifestFingerprint fingerprint = new ManifestFingerprint(numberOfRows, numberOfSeatsInRow, groupKinds);
+                        arrangements.put(new CacheKey(algorithm, fingerprint), rows);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all cached arrangements (least recently used first, so that the order is kept when loaded) to
+     * a temporary file, which then replaces the cache file - so the file is never left half-written.
+     */
+    public synchronized void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(FILE_HEADER);
+            output.writeInt(FILE_VERSION);
+            output.writeInt(arrangements.size());
+            for (Map.Entry<CacheKey, int[][]> entry : arrangements.entrySet()) {
+                ManifestFingerprint fingerprint = entry.getKey().getFingerprint();
+                output.writeUTF(entry.getKey().getAlgorithm().name());
+                output.writeInt(fingerprint.getNumberOfRows());
+                output.writeInt(fingerprint.getNumberOfSeatsInRow());
+                output.writeInt(fingerprint.getGroupKinds().length);
+                for (long groupKind : fingerprint.getGroupKinds()) {
+                    output.writeLong(groupKind);
+                }
+                output.writeInt(entry.getValue().length);
+                for (int[] row : entry.getValue()) {
+                    output.writeInt(row.length);
+                    for (int rowEntry : row) {
+                        output.writeInt(rowEntry);
+                    }
+                }
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Data
+    private static class CacheKey {
+        private final Algorithm algorithm;
+        private final ManifestFingerprint fingerprint;
+    }
+
+}
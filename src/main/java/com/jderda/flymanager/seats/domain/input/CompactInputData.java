@@ -0,0 +1,111 @@
+package com.jderda.flymanager.seats.domain.input;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Struct-of-arrays view of {@link InputData} for the solvers - group sizes and window preference counts, and
+ * passenger ids of all groups in one flat array (passengers of group i are between offsets i and i+1).
+ * Arrays are shared, not copied, and must not be modified.
+ * 
+ * {@link Group} and {@link Passenger} objects are created only when a solver builds its output.
+ */
+@Data
+@Builder
+public class CompactInputData {
+
+    private final int numberOfRows;
+    private final int numberOfSeatsInRow;
+    private final int[] groupSizes;
+    private final int[] windowCounts;
+    private final int[] groupOffsets;
+    private final int[] passengerIds;
+    private final boolean[] windowSeatPreferences;
+
+    public static CompactInputData of(InputData inputData) {
+        List<Group> groups = inputData.getGroups();
+        int[] groupSizes = new int[groups.size()];
+        int[] windowCounts = new int[groups.size()];
+        int[] groupOffsets = new int[groups.size()+1];
+        for (int i=0; i<groups.size(); i++) {
+            groupSizes[i] = groups.get(i).getPassengers().size();
+            groupOffsets[i+1] = groupOffsets[i] + groupSizes[i];
+        }
+        int[] passengerIds = new int[groupOffsets[groups.size()]];
+        boolean[] windowSeatPreferences = new boolean[passengerIds.length];
+        for (int i=0; i<groups.size(); i++) {
+            int passengerIndex = groupOffsets[i];
+            for (Passenger passenger : groups.get(i).getPassengers()) {
+                passengerIds[passengerIndex] = passenger.getId();
+                windowSeatPreferences[passengerIndex] = passenger.hasWindowSeatPreference();
+                if (windowSeatPreferences[passengerIndex]) {
+                    windowCounts[i]++;
+                }
+                passengerIndex++;
+            }
+        }
+        return CompactInputData.builder()
+                .numberOfRows(inputData.getNumberOfRows())
+                .numberOfSeatsInRow(inputData.getNumberOfSeatsInRow())
+                .groupSizes(groupSizes)
+                .windowCounts(windowCounts)
+                .groupOffsets(groupOffsets)
+                .passengerIds(passengerIds)
+                .windowSeatPreferences(windowSeatPreferences)
+                .build();
+    }
+
+    public int getNumberOfGroups() {
+        return groupSizes.length;
+    }
+
+    /**
+     * For every group, the closest group before it with the same size and number of window-preferring passengers
+     * (or -1 if there is none). Such groups are interchangeable for scoring, so solvers visit only one of the
+     * assignments that differ just by their order.
+     */
+    public int[] getPreviousEquivalentGroups() {
+        int[] result = new int[groupSizes.length];
+        Map<Long, Integer> lastGroupOfKind = new HashMap<>();
+        for (int i=0; i<groupSizes.length; i++) {
+            Integer previous = lastGroupOfKind.put(((long) groupSizes[i] << 32) | windowCounts[i], i);
+            result[i] = (previous != null) ? previous : -1;
+        }
+        return result;
+    }
+
+    public InputData toInputData() {
+        List<Group> groups = new ArrayList<>(getNumberOfGroups());
+        for (int i=0; i<getNumberOfGroups(); i++) {
+            groups.add(toGroup(i));
+        }
+        return InputData.builder()
+                .groups(groups)
+                .numberOfRows(numberOfRows)
+                .numberOfSeatsInRow(numberOfSeatsInRow)
+                .build();
+    }
+
+    public Passenger toPassenger(int passengerIndex) {
+        return Passenger.builder()
+                .id(passengerIds[passengerIndex])
+                .windowSeatPreference(windowSeatPreferences[passengerIndex])
+                .build();
+    }
+
+    public Group toGroup(int groupIndex) {
+        List<Passenger> passengers = new ArrayList<>(groupSizes[groupIndex]);
+        for (int i=groupOffsets[groupIndex]; i<groupOffsets[groupIndex+1]; i++) {
+            passengers.add(toPassenger(i));
+        }
+        return Group.builder()
+                .passengers(passengers)
+                .build();
+    }
+
+}
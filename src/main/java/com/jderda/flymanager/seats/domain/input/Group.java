@@ -2,17 +2,22 @@ package com.jderda.flymanager.seats.domain.input;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.List;
 
 import lombok.Builder;
 import lombok.Data;
 
 @Data
-@Builder
 public class Group implements AbstractGroup, Comparable<Group> {
 
     private final List<Passenger> passengers;
 
+    @Builder
+    public Group(List<Passenger> passengers) {
+        this.passengers = Collections.unmodifiableList(passengers);
+    }
+
     @Override
     public int compareTo(Group otherGroup) {
         return this.getOccupiedSeats().compareTo(otherGroup.getOccupiedSeats());
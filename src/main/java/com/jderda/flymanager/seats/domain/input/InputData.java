@@ -1,7 +1,9 @@
 package com.jderda.flymanager.seats.domain.input;
 
 import java.io.BufferedReader;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -10,13 +12,23 @@ import java.util.stream.Collectors;
 import lombok.Builder;
 import lombok.Data;
 
+/**
+ * Groups of passengers and the size of the plane. Input data is read-only (list of groups cannot be modified),
+ * so one instance can be shared by solvers running at the same time.
+ */
 @Data
-@Builder
 public class InputData {
 
     private final List<Group> groups;
     private final Integer numberOfRows;
     private final Integer numberOfSeatsInRow;
+
+    @Builder
+    public InputData(List<Group> groups, Integer numberOfRows, Integer numberOfSeatsInRow) {
+        this.groups = Collections.unmodifiableList(groups);
+        this.numberOfRows = numberOfRows;
+        this.numberOfSeatsInRow = numberOfSeatsInRow;
+    }
     
     public static InputData of(BufferedReader reader) {
         try {
@@ -42,6 +54,13 @@ public class InputData {
         }
     }
     
+    /**
+     * Reads input data from file, using {@link InputDataParser} instead of line-by-line parsing.
+     */
+    public static InputData of(Path path) {
+        return InputDataParser.parse(path);
+    }
+
     private static Group parseGroupLine(String line) {
         String[] passengersArray = line.split(" ");
         List<Passenger> passengers = Arrays.stream(passengersArray)
@@ -0,0 +1,290 @@
+package com.jderda.flymanager.seats.domain.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parser of the input format, working directly on bytes - either from a buffer or from a file channel
+ * mapped into memory window by window, so files larger than 2GB can be read as well. It accepts exactly the same
+ * inputs as {@link InputData#of(java.io.BufferedReader)}, but instead of splitting lines and matching regular
+ * expressions it reads passengers one by one, without allocating anything for them. Malformed input is reported
+ * with line and column where it was found.
+ * 
+ * Plane size is read when the parser is created; groups are then iterated with {@link #nextGroup()} and
+ * passengers of the current group with {@link #nextPassenger()}.
+ */
+public class InputDataParser {
+
+    private static final long MAPPED_WINDOW_SIZE = 64L*1024*1024;
+    private static final int END_OF_INPUT = -1;
+    private static final int NONE = -2;
+
+    private final FileChannel channel;
+    private long mappedPosition;
+    private ByteBuffer buffer;
+    private int pushedBack = NONE;
+
+    private int line = 1;
+    private int column = 0;
+
+    private final int numberOfSeatsInRow;
+    private final int numberOfRows;
+
+    private boolean inGroup;
+    private int passengerId;
+    private boolean windowSeatPreference;
+
+    public InputDataParser(ByteBuffer buffer) {
+        this(buffer, null);
+    }
+
+    public InputDataParser(FileChannel channel) {
+        this(ByteBuffer.allocate(0), channel);
+    }
+
+    private InputDataParser(ByteBuffer buffer, FileChannel channel) {
+        this.buffer = buffer;
+        this.channel = channel;
+        this.numberOfSeatsInRow = readNumber("Invalid plane size definition, expected number of seats in row");
+        if (read() != ' ') {
+            throw error("Invalid plane size definition, expected single space");
+        }
+        this.numberOfRows = readNumber("Invalid plane size definition, expected number of rows");
+        //anything after the plane size is ignored, as it always was
+        int character = read();
+        while (!isEndOfLine(character)) {
+            character = read();
+        }
+        consumeEndOfLine(character);
+    }
+
+    public int getNumberOfSeatsInRow() {
+        return numberOfSeatsInRow;
+    }
+
+    public int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * Moves to the next line (group), skipping the remaining passengers of the current one. 
+     * Returns false if there are no more lines.
+     */
+    public boolean nextGroup() {
+        while (inGroup) {
+            nextPassenger();
+        }
+        int character = read();
+        if (character == END_OF_INPUT) {
+            return false;
+        }
+        pushBack(character);
+        inGroup = true;
+        return true;
+    }
+
+    /**
+     * Reads next passenger of the current group, returns false if there are no more of them.
+     */
+    public boolean nextPassenger() {
+        if (!inGroup) {
+            return false;
+        }
+        int character = read();
+        while (isSeparator(character)) {
+            character = read();
+        }
+        if (isEndOfLine(character)) {
+            consumeEndOfLine(character);
+            inGroup = false;
+            return false;
+        }
+        pushBack(character);
+        passengerId = readNumber("Invalid passenger details format, expected [0-9]*W?");
+        character = read();
+        windowSeatPreference = (character == 'W');
+        if (windowSeatPreference) {
+            character = read();
+        }
+        //other whitespace is trimmed from the end of the passenger details, but not from its middle
+        while (isSeparator(character) && character != ' ') {
+            character = read();
+        }
+        if (character != ' ' && !isEndOfLine(character)) {
+            throw error("Invalid passenger details format, expected [0-9]*W?");
+        }
+        pushBack(character);
+        return true;
+    }
+
+    public int getPassengerId() {
+        return passengerId;
+    }
+
+    public boolean hasWindowSeatPreference() {
+        return windowSeatPreference;
+    }
+
+    public InputData readInputData() {
+        List<Group> groups = new ArrayList<>();
+        while (nextGroup()) {
+            List<Passenger> passengers = new ArrayList<>();
+            while (nextPassenger()) {
+                passengers.add(Passenger.builder()
+                        .id(passengerId)
+                        .windowSeatPreference(windowSeatPreference)
+                        .build());
+            }
+            groups.add(Group.builder()
+                    .passengers(passengers)
+                    .build());
+        }
+        return InputData.builder()
+                .groups(groups)
+                .numberOfSeatsInRow(numberOfSeatsInRow)
+                .numberOfRows(numberOfRows)
+                .build();
+    }
+
+    public static InputData parse(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new InputDataParser(channel).readInputData();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read input data definition", e);
+        }
+    }
+
+    public static CompactInputData parseCompact(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new InputDataParser(channel).readCompactInputData();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read input data definition", e);
+        }
+    }
+
+    public CompactInputData readCompactInputData() {
+        int numberOfGroups = 0;
+        int numberOfPassengers = 0;
+        int[] groupSizes = new int[16];
+        int[] windowCounts = new int[16];
+        int[] passengerIds = new int[16];
+        boolean[] windowSeatPreferences = new boolean[16];
+        while (nextGroup()) {
+            if (numberOfGroups == groupSizes.length) {
+                groupSizes = Arrays.copyOf(groupSizes, 2*numberOfGroups);
+                windowCounts = Arrays.copyOf(windowCounts, 2*numberOfGroups);
+            }
+            while (nextPassenger()) {
+                if (numberOfPassengers == passengerIds.length) {
+                    passengerIds = Arrays.copyOf(passengerIds, 2*numberOfPassengers);
+                    windowSeatPreferences = Arrays.copyOf(windowSeatPreferences, 2*numberOfPassengers);
+                }
+                passengerIds[numberOfPassengers] = passengerId;
+                windowSeatPreferences[numberOfPassengers] = windowSeatPreference;
+                numberOfPassengers++;
+                groupSizes[numberOfGroups]++;
+                if (windowSeatPreference) {
+                    windowCounts[numberOfGroups]++;
+                }
+            }
+            numberOfGroups++;
+        }
+        int[] groupOffsets = new int[numberOfGroups+1];
+        for (int i=0; i<numberOfGroups; i++) {
+            groupOffsets[i+1] = groupOffsets[i] + groupSizes[i];
+        }
+        return CompactInputData.builder()
+                .numberOfRows(numberOfRows)
+                .numberOfSeatsInRow(numberOfSeatsInRow)
+                .groupSizes(Arrays.copyOf(groupSizes, numberOfGroups))
+                .windowCounts(Arrays.copyOf(windowCounts, numberOfGroups))
+                .groupOffsets(groupOffsets)
+                .passengerIds(Arrays.copyOf(passengerIds, numberOfPassengers))
+                .windowSeatPreferences(Arrays.copyOf(windowSeatPreferences, numberOfPassengers))
+                .build();
+    }
+
+    private int readNumber(String errorMessage) {
+        int character = read();
+        if (character < '0' || character > '9') {
+            throw error(errorMessage);
+        }
+        int result = 0;
+        while (character >= '0' && character <= '9') {
+            int digit = character - '0';
+            if (result > (Integer.MAX_VALUE - digit)/10) {
+                throw error("Number too large");
+            }
+            result = result*10 + digit;
+            character = read();
+        }
+        pushBack(character);
+        return result;
+    }
+
+    private static boolean isEndOfLine(int character) {
+        return character == '\n' || character == '\r' || character == END_OF_INPUT;
+    }
+
+    private static boolean isSeparator(int character) {
+        //same characters as trimmed by String.trim()
+        return character >= 0 && character <= ' ' && !isEndOfLine(character);
+    }
+
+    private void consumeEndOfLine(int character) {
+        if (character == '\r') {
+            int next = read();
+            if (next != '\n') {
+                pushBack(next);
+            }
+        }
+        if (character != END_OF_INPUT) {
+            line++;
+            column = 0;
+        }
+    }
+
+    private void pushBack(int character) {
+        pushedBack = character;
+    }
+
+    private int read() {
+        if (pushedBack != NONE) {
+            int character = pushedBack;
+            pushedBack = NONE;
+            return character;
+        }
+        if (!buffer.hasRemaining() && !mapNextWindow()) {
+            return END_OF_INPUT;
+        }
+        column++;
+        return buffer.get() & 0xff;
+    }
+
+    private boolean mapNextWindow() {
+        try {
+            if (channel == null || mappedPosition >= channel.size()) {
+                return false;
+            }
+            long size = Math.min(MAPPED_WINDOW_SIZE, channel.size()-mappedPosition);
+            buffer = channel.map(MapMode.READ_ONLY, mappedPosition, size);
+            mappedPosition += size;
+            return buffer.hasRemaining();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read input data definition", e);
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        //the offending character is always the last one read (even if it was pushed back)
+        return new IllegalArgumentException(String.format("%s at line %d, column %d", message, line, column));
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.jderda.flymanager.seats.domain.input;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import lombok.Builder;
+
+/**
+ * Generates random input data in the format read by {@link InputData} and {@link InputDataParser}. The same seed and
+ * parameters always give the same manifest, so generated inputs can be used in benchmarks and tests.
+ * <p>
+ * Passengers (numbered from 1) are split into groups with sizes drawn from the given weights - first weight is for
+ * single passengers, second for pairs and so on (all sizes up to the row width are equally likely by default).
+ * Window seat preference rate is the chance that a group has a passenger preferring window seat - there is never
+ * more than one such passenger in a group, unless the rate is per passenger (then every passenger prefers window seat
+ * with that chance, so larger groups have more of them). Number of passengers is the number of seats multiplied by
+ * oversubscription.
+ * <p>
+ * Manifest is written as it is generated, so files much bigger than available memory can be created.
+ */
+public class ManifestGenerator {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_NUMBER_LENGTH = 20;
+
+    private final int numberOfSeatsInRow;
+    private final int numberOfRows;
+    private final double[] cumulativeGroupSizeWeights;
+    private final double windowSeatPreferenceRate;
+    private final boolean windowSeatPreferencePerPassenger;
+    private final long numberOfPassengers;
+    private final long seed;
+
+    @Builder
+    public ManifestGenerator(Integer numberOfSeatsInRow, Integer numberOfRows, int[] groupSizeWeights,
+            Double windowSeatPreferenceRate, Boolean windowSeatPreferencePerPassenger, Double oversubscription,
+            Long seed) {
+        this.numberOfSeatsInRow = (numberOfSeatsInRow != null) ? numberOfSeatsInRow : 6;
+        this.numberOfRows = (numberOfRows != null) ? numberOfRows : 30;
+        this.windowSeatPreferenceRate = (windowSeatPreferenceRate != null) ? windowSeatPreferenceRate : 0.3;
+        this.windowSeatPreferencePerPassenger = Boolean.TRUE.equals(windowSeatPreferencePerPassenger);
+        this.seed = (seed != null) ? seed : 0;
+        double passengers = (double) this.numberOfSeatsInRow * this.numberOfRows
+                * ((oversubscription != null) ? oversubscription : 1.0);
+        this.numberOfPassengers = Math.round(passengers);
+
+        int[] weights = groupSizeWeights;
+        if (weights == null) {
+            weights = new int[this.numberOfSeatsInRow];
+            Arrays.fill(weights, 1);
+        }
+        this.cumulativeGroupSizeWeights = new double[weights.length];
+        double total = 0;
+        for (int i=0; i<weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Group size weights cannot be negative");
+            }
+            total += weights[i];
+            cumulativeGroupSizeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one group size weight has to be positive");
+        }
+    }
+
+    public long getNumberOfPassengers() {
+        return numberOfPassengers;
+    }
+
+    public void write(Path path) {
+        try (OutputStream output = Files.newOutputStream(path)) {
+            write(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(OutputStream output) throws IOException {
+        Random random = new Random(seed);
+        ManifestBuffer buffer = new ManifestBuffer(output);
+        buffer.append(numberOfSeatsInRow).append(' ').append(numberOfRows).append('\n');
+        long passengerId = 1;
+        while (passengerId <= numberOfPassengers) {
+            int groupSize = (int) Math.min(nextGroupSize(random), numberOfPassengers - passengerId + 1);
+            int windowSeatPassenger = (!windowSeatPreferencePerPassenger && random.nextDouble() < windowSeatPreferenceRate)
+                    ? random.nextInt(groupSize)
+                    : -1;
+            for (int i=0; i<groupSize; i++) {
+                if (i > 0) {
+                    buffer.append(' ');
+                }
+                buffer.append(passengerId++);
+                if (i == windowSeatPassenger
+                        || (windowSeatPreferencePerPassenger && random.nextDouble() < windowSeatPreferenceRate)) {
+                    buffer.append('W');
+                }
+            }
+            buffer.append('\n');
+        }
+        buffer.flush();
+    }
+
+    public String generate() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            write(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private int nextGroupSize(Random random) {
+        double total = cumulativeGroupSizeWeights[cumulativeGroupSizeWeights.length - 1];
+        double drawn = random.nextDouble() * total;
+        for (int i=0; i<cumulativeGroupSizeWeights.length; i++) {
+            if (drawn < cumulativeGroupSizeWeights[i]) {
+                return i + 1;
+            }
+        }
+        return cumulativeGroupSizeWeights.length;
+    }
+
+    /**
+     * Writes digits straight into a byte array, so that no strings are created per passenger.
+     */
+    private static class ManifestBuffer {
+
+        private final OutputStream output;
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        private int length;
+
+        ManifestBuffer(OutputStream output) {
+            this.output = output;
+        }
+
+        ManifestBuffer append(char character) throws IOException {
+            ensureSpace(1);
+            bytes[length++] = (byte) character;
+            return this;
+        }
+
+        ManifestBuffer append(long number) throws IOException {
+            ensureSpace(MAX_NUMBER_LENGTH);
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + number % 10);
+                number /= 10;
+            } while (number > 0);
+            for (int i=start, j=length-1; i<j; i++, j--) {
+                byte digit = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = digit;
+            }
+            return this;
+        }
+
+        void flush() throws IOException {
+            output.write(bytes, 0, length);
+            length = 0;
+            output.flush();
+        }
+
+        private void ensureSpace(int needed) throws IOException {
+            if (length + needed > bytes.length) {
+                output.write(bytes, 0, length);
+                length = 0;
+            }
+        }
+
+    }
+
+}
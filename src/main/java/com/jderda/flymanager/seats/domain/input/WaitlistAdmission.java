@@ -0,0 +1,173 @@
+package com.jderda.flymanager.seats.domain.input;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import lombok.Builder;
+
+/**
+ * Streaming admission of the waiting list for oversubscribed flights. Groups are read one by one from
+ * {@link InputDataParser}, and only a bounded pool of candidates is kept, so memory needed depends on the size of
+ * the plane, but not on the length of the waiting list.
+ * <p>
+ * Groups of the same size and number of window-preferring passengers are interchangeable, and no more than
+ * {@code numberOfRows * (numberOfSeatsInRow / size)} groups of a size fit in the plane - so the first that many
+ * groups of every kind are admitted, and any arrangement of the whole waiting list can be made of them, with
+ * the same satisfaction. Other groups (including ones larger than a row) can only take the remaining seats, 
+ * so they are kept in order of arrival just until there are enough candidates to take all seats of the plane 
+ * plus some slack.
+ * <p>
+ * Admitted groups are given to the solvers in their original order, so for waiting lists that fit in the pool
+ * nothing changes at all.
+ */
+public class WaitlistAdmission {
+
+    //by default a quarter of the plane capacity is admitted on top of it, as passengers to fill the seats with
+    private static final int DEFAULT_SLACK_DIVISOR = 4;
+
+    private final Integer slack;
+
+    private long groupsRead;
+    private long groupsAdmitted;
+
+    @Builder
+    public WaitlistAdmission(Integer slack) {
+        if (slack != null && slack < 0) {
+            throw new IllegalArgumentException("Slack can't be negative");
+        }
+        this.slack = slack;
+    }
+
+    public CompactInputData admit(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return admit(new InputDataParser(channel));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read input data definition", e);
+        }
+    }
+
+    public CompactInputData admit(InputDataParser parser) {
+        int numberOfSeatsInRow = parser.getNumberOfSeatsInRow();
+        int numberOfRows = parser.getNumberOfRows();
+        long capacity = (long) numberOfRows * numberOfSeatsInRow;
+        long poolSize = capacity + ((slack != null) ? slack : capacity/DEFAULT_SLACK_DIVISOR);
+
+        //admitted groups by size and number of window-preferring passengers
+        int[][] groupsOfKind = new int[numberOfSeatsInRow+1][numberOfSeatsInRow+1];
+        List<Candidate> admitted = new ArrayList<>();
+        long admittedPassengers = 0;
+        Deque<Candidate> reserve = new ArrayDeque<>();
+        long reservedPassengers = 0;
+
+        int[] passengerIds = new int[Math.max(numberOfSeatsInRow, 1)];
+        boolean[] windowSeatPreferences = new boolean[passengerIds.length];
+        groupsRead = 0;
+        while (parser.nextGroup()) {
+            int size = 0;
+            int windows = 0;
+            while (parser.nextPassenger()) {
+                if (size == passengerIds.length) {
+                    passengerIds = Arrays.copyOf(passengerIds, 2*size);
+                    windowSeatPreferences = Arrays.copyOf(windowSeatPreferences, 2*size);
+                }
+                passengerIds[size] = parser.getPassengerId();
+                windowSeatPreferences[size] = parser.hasWindowSeatPreference();
+                windows += windowSeatPreferences[size] ? 1 : 0;
+                size++;
+            }
+            long position = groupsRead++;
+            if (size > 0 && size <= numberOfSeatsInRow 
+                    && groupsOfKind[size][windows] < (long) numberOfRows*(numberOfSeatsInRow/size)) {
+                groupsOfKind[size][windows]++;
+                admitted.add(new Candidate(position, passengerIds, windowSeatPreferences, size, windows));
+                admittedPassengers += size;
+                //reserved groups that came last are no longer needed to fill the pool
+                while (!reserve.isEmpty() 
+                        && admittedPassengers + reservedPassengers - reserve.peekLast().getSize() >= poolSize) {
+                    reservedPassengers -= reserve.pollLast().getSize();
+                }
+            } else if (admittedPassengers + reservedPassengers < poolSize) {
+                reserve.addLast(new Candidate(position, passengerIds, windowSeatPreferences, size, windows));
+                reservedPassengers += size;
+            }
+        }
+        List<Candidate> candidates = new ArrayList<>(admitted);
+        candidates.addAll(reserve);
+        groupsAdmitted = candidates.size();
+        return toCompactInputData(parser, candidates);
+    }
+
+    /**
+     * Number of groups on the waiting list read by the last admission.
+     */
+    public long getGroupsRead() {
+        return groupsRead;
+    }
+
+    /**
+     * Number of groups that the last admission let through to the solvers.
+     */
+    public long getGroupsAdmitted() {
+        return groupsAdmitted;
+    }
+
+    private static CompactInputData toCompactInputData(InputDataParser parser, List<Candidate> candidates) {
+        candidates.sort(Comparator.comparingLong(Candidate::getPosition));
+        int numberOfPassengers = candidates.stream().mapToInt(Candidate::getSize).sum();
+        int[] groupSizes = new int[candidates.size()];
+        int[] windowCounts = new int[candidates.size()];
+        int[] groupOffsets = new int[candidates.size()+1];
+        int[] passengerIds = new int[numberOfPassengers];
+        boolean[] windowSeatPreferences = new boolean[numberOfPassengers];
+        for (int group=0; group<candidates.size(); group++) {
+            Candidate candidate = candidates.get(group);
+            groupSizes[group] = candidate.getSize();
+            groupOffsets[group+1] = groupOffsets[group] + groupSizes[group];
+            System.arraycopy(candidate.passengerIds, 0, passengerIds, groupOffsets[group], groupSizes[group]);
+            System.arraycopy(candidate.windowSeatPreferences, 0, windowSeatPreferences, groupOffsets[group], groupSizes[group]);
+            windowCounts[group] = candidate.windows;
+        }
+        return CompactInputData.builder()
+                .numberOfRows(parser.getNumberOfRows())
+                .numberOfSeatsInRow(parser.getNumberOfSeatsInRow())
+                .groupSizes(groupSizes)
+                .windowCounts(windowCounts)
+                .groupOffsets(groupOffsets)
+                .passengerIds(passengerIds)
+                .windowSeatPreferences(windowSeatPreferences)
+                .build();
+    }
+
+    private static class Candidate {
+
+        private final long position;
+        private final int[] passengerIds;
+        private final boolean[] windowSeatPreferences;
+        private final int windows;
+
+        //passengers are copied from the parsing buffers, which are reused for the next group
+        Candidate(long position, int[] passengerIds, boolean[] windowSeatPreferences, int size, int windows) {
+            this.position = position;
+            this.passengerIds = Arrays.copyOf(passengerIds, size);
+            this.windowSeatPreferences = Arrays.copyOf(windowSeatPreferences, size);
+            this.windows = windows;
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        int getSize() {
+            return passengerIds.length;
+        }
+    }
+
+}
@@ -1,8 +1,18 @@
 package com.jderda.flymanager.seats.domain.output;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.jderda.flymanager.seats.domain.input.Group;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.Passenger;
 
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +30,63 @@ public class SeatsArrangement {
         writer.append(String.format("%.0f%%\n", getPercentageOfSatisfiedPassengers()));
     }
 
+    /**
+     * Reads an arrangement in the form it's printed in, with passengers (and their groups) of the given input data.
+     * Passengers of a group who sit in one row are seated together, others (and groups split between rows) are
+     * seated as single passengers - the same as arrangements of the algorithms.
+     */
+    public static SeatsArrangement of(BufferedReader reader, InputData inputData) {
+        Map<Integer, Passenger> passengers = new HashMap<>();
+        Map<Integer, Group> groupOfPassenger = new HashMap<>();
+        for (Group group : inputData.getGroups()) {
+            for (Passenger passenger : group.getPassengers()) {
+                passengers.put(passenger.getId(), passenger);
+                groupOfPassenger.put(passenger.getId(), group);
+            }
+        }
+        try {
+            List<SeatsRow> rows = new ArrayList<>();
+            for (int row=0; row<inputData.getNumberOfRows(); row++) {
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new IllegalArgumentException("Expected " + inputData.getNumberOfRows() + " rows, got " + row);
+                }
+                List<Passenger> rowPassengers = new ArrayList<>();
+                Set<Integer> rowPassengerIds = new HashSet<>();
+                for (String passengerId : line.trim().split(" +")) {
+                    if (passengerId.isEmpty()) {
+                        continue;
+                    }
+                    Passenger passenger = passengers.get(Integer.valueOf(passengerId));
+                    if (passenger == null) {
+                        throw new IllegalArgumentException("Passenger " + passengerId + " is not in the input data");
+                    }
+                    rowPassengers.add(passenger);
+                    rowPassengerIds.add(passenger.getId());
+                }
+                SeatsRow seatsRow = new SeatsRow(inputData.getNumberOfSeatsInRow());
+                Set<Group> seatedGroups = new HashSet<>();
+                for (Passenger passenger : rowPassengers) {
+                    Group group = groupOfPassenger.get(passenger.getId());
+                    boolean together = group.getPassengers().stream()
+                            .allMatch(groupPassenger -> rowPassengerIds.contains(groupPassenger.getId()));
+                    if (!together) {
+                        seatsRow.add(passenger);
+                    } else if (seatedGroups.add(group)) {
+                        seatsRow.add(group);
+                    }
+                }
+                if (seatsRow.getOccupiedSeats() > inputData.getNumberOfSeatsInRow()) {
+                    throw new IllegalArgumentException("Row " + (row+1) + " has more passengers than seats");
+                }
+                rows.add(seatsRow);
+            }
+            return SeatsArrangement.builder().rows(rows).build();
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot read seats arrangement", e);
+        }
+    }
+
     public double getPercentageOfSatisfiedPassengers() {
         Integer totalNumberOfPassengers = getNumberOfPassengersOnboard();
         Integer totalNumberOfSatisfiedPassengers = getNumberOfSatisfiedPassengers();
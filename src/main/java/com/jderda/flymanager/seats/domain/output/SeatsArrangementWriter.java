@@ -0,0 +1,180 @@
+package com.jderda.flymanager.seats.domain.output;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import com.jderda.flymanager.seats.domain.input.AbstractGroup;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+
+/**
+ * Writes arrangements in the same form as {@link SeatsArrangement#print(java.io.Writer)}, byte for byte, but straight
+ * into a reused buffer that is drained to a channel - numbers are formatted without strings, and passengers are
+ * written in seat order (see {@link SeatsRow#getPassengers()}) without building lists, so writing creates no garbage.
+ * <p>
+ * Writer is not thread-safe, but can be reused for many arrangements.
+ */
+public class SeatsArrangementWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_NUMBER_LENGTH = 20;
+    private static final byte[] NAN = {'N', 'a', 'N'};
+
+    private final ByteBuffer buffer;
+    private WritableByteChannel channel;
+
+    public SeatsArrangementWriter() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public SeatsArrangementWriter(int bufferSize) {
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, MAX_NUMBER_LENGTH));
+    }
+
+    public void write(SeatsArrangement arrangement, WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        try {
+            long satisfiedPassengers = 0;
+            long passengersOnboard = 0;
+            for (SeatsRow row : arrangement.getRows()) {
+                writeRow(row);
+                satisfiedPassengers += row.getNumberOfSatisfiedPassengers();
+                passengersOnboard += row.getOccupiedSeats();
+            }
+            writePercentage(satisfiedPassengers, passengersOnboard);
+            drain();
+        } finally {
+            this.channel = null;
+        }
+    }
+
+    private void writeRow(SeatsRow row) throws IOException {
+        List<AbstractGroup> groups = row.getGroups();
+        int firstWindowGroup = -1;
+        int lastWindowGroup = -1;
+        for (int i=0; i<groups.size(); i++) {
+            if (hasWindowSeatPreference(groups.get(i))) {
+                firstWindowGroup = (firstWindowGroup < 0) ? i : firstWindowGroup;
+                lastWindowGroup = i;
+            }
+        }
+        boolean first = true;
+        //first window-preferring passenger sits by the window, followed by the rest of the group
+        if (firstWindowGroup >= 0) {
+            Passenger windowPassenger = getFirstWindowPassenger(groups.get(firstWindowGroup));
+            first = writePassenger(windowPassenger, first);
+            first = writePassengers(groups.get(firstWindowGroup), windowPassenger, first);
+        }
+        for (AbstractGroup group : groups) {
+            if (!hasWindowSeatPreference(group)) {
+                first = writePassengers(group, null, first);
+            }
+        }
+        //other groups with window preferences are seated towards the other window, with last one's passenger by it
+        if (lastWindowGroup > firstWindowGroup) {
+            Passenger windowPassenger = getFirstWindowPassenger(groups.get(lastWindowGroup));
+            for (int i=firstWindowGroup+1; i<=lastWindowGroup; i++) {
+                if (hasWindowSeatPreference(groups.get(i))) {
+                    first = writePassengers(groups.get(i), windowPassenger, first);
+                }
+            }
+            writePassenger(windowPassenger, first);
+        }
+        put((byte) '\n');
+    }
+
+    private boolean writePassengers(AbstractGroup group, Passenger skipped, boolean first) throws IOException {
+        if (group instanceof Passenger) {
+            return (group == skipped) ? first : writePassenger((Passenger) group, first);
+        }
+        List<Passenger> passengers = group.getPassengers();
+        for (int i=0; i<passengers.size(); i++) {
+            if (passengers.get(i) != skipped) {
+                first = writePassenger(passengers.get(i), first);
+            }
+        }
+        return first;
+    }
+
+    private boolean writePassenger(Passenger passenger, boolean first) throws IOException {
+        if (!first) {
+            put((byte) ' ');
+        }
+        putNumber(passenger.getId());
+        return false;
+    }
+
+    private static boolean hasWindowSeatPreference(AbstractGroup group) {
+        return getFirstWindowPassenger(group) != null;
+    }
+
+    private static Passenger getFirstWindowPassenger(AbstractGroup group) {
+        if (group instanceof Passenger) {
+            return ((Passenger) group).hasWindowSeatPreference() ? (Passenger) group : null;
+        }
+        List<Passenger> passengers = group.getPassengers();
+        for (int i=0; i<passengers.size(); i++) {
+            if (passengers.get(i).hasWindowSeatPreference()) {
+                return passengers.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same as "%.0f%%" of the percentage computed in doubles - rounded half up (away from zero), "-" kept for
+     * negative values rounded to zero, and NaN when there's no one onboard.
+     */
+    private void writePercentage(long satisfied, long total) throws IOException {
+        if (total == 0) {
+            ensureSpace(NAN.length);
+            buffer.put(NAN);
+        } else {
+            if (satisfied < 0) {
+                put((byte) '-');
+            }
+            putNumber((200*Math.abs(satisfied) + total) / (2*total));
+        }
+        put((byte) '%');
+        put((byte) '\n');
+    }
+
+    private void put(byte value) throws IOException {
+        ensureSpace(1);
+        buffer.put(value);
+    }
+
+    private void putNumber(long number) throws IOException {
+        ensureSpace(MAX_NUMBER_LENGTH);
+        if (number < 0) {
+            buffer.put((byte) '-');
+            number = -number;
+        }
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + number % 10));
+            number /= 10;
+        } while (number > 0);
+        for (int i=start, j=buffer.position()-1; i<j; i++, j--) {
+            byte digit = buffer.get(i);
+            buffer.put(i, buffer.get(j));
+            buffer.put(j, digit);
+        }
+    }
+
+    private void ensureSpace(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
@@ -10,9 +10,17 @@ import java.util.stream.Collectors;
 import com.jderda.flymanager.seats.domain.input.AbstractGroup;
 import com.jderda.flymanager.seats.domain.input.Passenger;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
-
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Row of seats with groups assigned to it. Number of occupied seats, window-preferring passengers and satisfied 
+ * passengers are kept as running totals, so groups should be added and removed only through {@link #add(AbstractGroup)},
+ * {@link #remove(AbstractGroup)} and {@link #replace(AbstractGroup, AbstractGroup)}.
+ */
 @Data
 public class SeatsRow implements AbstractGroup {
 
@@ -20,53 +28,100 @@ public class SeatsRow implements AbstractGroup {
     
     private final List<AbstractGroup> groups;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int occupiedSeats;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int windowPreferringPassengers;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int groupedPassengers;
+
     public Optional<Integer> getPotentialGroupSatisfaction(AbstractGroup group) {
-        Integer currentCapacityUsed = getOccupiedSeats();
-        if (group.getOccupiedSeats() > capacity-currentCapacityUsed) {
+        if (group.getOccupiedSeats() > capacity-occupiedSeats) {
             return Optional.empty();
         }
         
         Integer potentialSatisfaction = group.getMaximumSatisfaction();
         
         //check for the case that there are too many passengers wanting window seat in that row
-        Integer numberOfAlreadBookedWindowSeats = (int) groups.stream()
-                .flatMap(grp -> grp.getPassengers().stream())
-                .filter(passenger -> passenger.hasWindowSeatPreference())
-                .count();
-        Integer numberOfWantedWindowSeats = (int) group.getPassengers().stream()
-                .filter(passenger -> passenger.hasWindowSeatPreference())
-                .count();
-        Integer numberOfWindowSeatsLeft = Math.max(0, 2-numberOfAlreadBookedWindowSeats);
+        Integer numberOfWantedWindowSeats = countWindowPreferringPassengers(group);
+        Integer numberOfWindowSeatsLeft = Math.max(0, 2-windowPreferringPassengers);
         Integer numberOfDissatisfiedPassengers = Math.min(0, numberOfWantedWindowSeats-numberOfWindowSeatsLeft);
         potentialSatisfaction = potentialSatisfaction-numberOfDissatisfiedPassengers;
         return Optional.of(potentialSatisfaction);
     }
 
+    private static int countWindowPreferringPassengers(AbstractGroup group) {
+        int result = 0;
+        for (Passenger passenger : group.getPassengers()) {
+            if (passenger.hasWindowSeatPreference()) {
+                result++;
+            }
+        }
+        return result;
+    }
+
     @Override
     public Integer getOccupiedSeats() {
-        return groups.stream().mapToInt(grp -> grp.getOccupiedSeats()).sum();
+        return occupiedSeats;
     }
 
     public void add(AbstractGroup group) {
         groups.add(group);
+        addToTotals(group);
+    }
+
+    /**
+     * Removes the group from the row, returns false if it was not seated there.
+     */
+    public boolean remove(AbstractGroup group) {
+        if (!groups.remove(group)) {
+            return false;
+        }
+        removeFromTotals(group);
+        return true;
+    }
+
+    /**
+     * Puts another group in place of the given one (e.g. the same group without a passenger who cancelled), so that
+     * other passengers in the row keep their seats as far as possible.
+     */
+    public void replace(AbstractGroup group, AbstractGroup replacement) {
+        int index = groups.indexOf(group);
+        if (index < 0) {
+            throw new IllegalArgumentException("Group is not seated in this row");
+        }
+        groups.set(index, replacement);
+        removeFromTotals(group);
+        addToTotals(replacement);
+    }
+
+    private void addToTotals(AbstractGroup group) {
+        occupiedSeats += group.getOccupiedSeats();
+        windowPreferringPassengers += countWindowPreferringPassengers(group);
+        if (!(group instanceof Passenger)) {
+            groupedPassengers += group.getMaximumSatisfaction();
+        }
+    }
+
+    private void removeFromTotals(AbstractGroup group) {
+        occupiedSeats -= group.getOccupiedSeats();
+        windowPreferringPassengers -= countWindowPreferringPassengers(group);
+        if (!(group instanceof Passenger)) {
+            groupedPassengers -= group.getMaximumSatisfaction();
+        }
     }
 
     public boolean isFull() {
-        return getOccupiedSeats() == this.capacity;
+        return occupiedSeats == this.capacity;
     }
     
     public Integer getNumberOfSatisfiedPassengers() {
-        int totalSatisfaction = 0;
-        for (AbstractGroup group : groups) {
-            if (!(group instanceof Passenger)) {
-                totalSatisfaction += group.getMaximumSatisfaction();
-            }
-        }
-        int windowPreferringPassengers = (int)groups.stream()
-            .flatMap(group -> group.getPassengers().stream())
-            .filter(Passenger::hasWindowSeatPreference)
-            .count();
-        return totalSatisfaction-Math.max(0, windowPreferringPassengers-2);
+        return groupedPassengers-Math.max(0, windowPreferringPassengers-2);
     }
 
     @Override
@@ -122,7 +177,7 @@ public class SeatsRow implements AbstractGroup {
 
     @Override
     public boolean hasWindowSeatPreferencePassengers() {
-        return groups.stream().anyMatch(group -> group.hasWindowSeatPreferencePassengers());
+        return windowPreferringPassengers > 0;
     }
 
     @Builder
@@ -130,6 +185,9 @@ public class SeatsRow implements AbstractGroup {
         super();
         this.capacity = capacity;
         this.groups = groups;
+        for (AbstractGroup group : groups) {
+            addToTotals(group);
+        }
     }
 
     public SeatsRow(Integer capacity) {
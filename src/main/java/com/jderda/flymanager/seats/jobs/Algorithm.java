@@ -0,0 +1,103 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+/**
+ * Available seat assignment algorithms, with command line flags that select them. Algorithms that run until a 
+ * time limit take it as the flag's value (like -anytime 500), the others ignore it.
+ */
+public enum Algorithm {
+
+    SIMPLE("-simple", false, (data, timeLimit) -> SimpleAssignSeatsJob.builder()
+            .inputData(data)
+            .build()),
+    IMPROVED_SIMPLE("-improved", false, (data, timeLimit) -> ImprovedSimpleAssignSeatsJob.builder()
+            .inputData(data)
+            .build()),
+    ALL_PERMUTATIONS("-all", false, (data, timeLimit) -> CheckAllPossibileSeatArrangementsJob.builder()
+            .inputData(data)
+            .build()),
+    BRANCH_AND_BOUND("-bnb", false, (data, timeLimit) -> BranchAndBoundSeatArrangementsJob.builder()
+            .inputData(data)
+            .build()),
+    PARALLEL("-parallel", false, (data, timeLimit) -> ParallelSeatArrangementsJob.builder()
+            .inputData(data)
+            .build()),
+    IDENTICAL_ROWS("-dp", false, (data, timeLimit) -> IdenticalRowsSeatArrangementsJob.builder()
+            .inputData(data)
+            .build()),
+    ANYTIME("-anytime", true, (data, timeLimit) -> AnytimeSeatArrangementsJob.builder()
+            .inputData(data)
+            .timeLimit(timeLimit)
+            .build()),
+    PORTFOLIO("-portfolio", true, (data, timeLimit) -> PortfolioSeatArrangementsJob.builder()
+            .inputData(data)
+            .timeLimit(timeLimit)
+            .build()),
+    CERTIFIED("-certified", false, (data, timeLimit) -> CertifiedSeatArrangementsJob.builder()
+            .inputData(data)
+            .build());
+
+    private final String flag;
+    private final boolean timeLimited;
+    private final BiFunction<InputData, Duration, Callable<SeatsArrangement>> jobFactory;
+
+    private Algorithm(String flag, boolean timeLimited, 
+            BiFunction<InputData, Duration, Callable<SeatsArrangement>> jobFactory) {
+        this.flag = flag;
+        this.timeLimited = timeLimited;
+        this.jobFactory = jobFactory;
+    }
+
+    public String getFlag() {
+        return flag;
+    }
+
+    public boolean isTimeLimited() {
+        return timeLimited;
+    }
+
+    /**
+     * Exact algorithms find an arrangement with the best satisfaction whatever the order of groups in the input, 
+     * results of the others depend on it (and on the time they're given).
+     */
+    public boolean isExact() {
+        switch (this) {
+            case ALL_PERMUTATIONS:
+            case BRANCH_AND_BOUND:
+            case PARALLEL:
+            case IDENTICAL_ROWS:
+            case CERTIFIED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public Callable<SeatsArrangement> createJob(InputData inputData) {
+        return createJob(inputData, null);
+    }
+
+    /**
+     * Creates the job with given time limit (or the algorithm's default one, if it's null).
+     */
+    public Callable<SeatsArrangement> createJob(InputData inputData, Duration timeLimit) {
+        return jobFactory.apply(inputData, timeLimit);
+    }
+
+    public static Optional<Algorithm> forFlag(String flag) {
+        for (Algorithm algorithm : values()) {
+            if (algorithm.flag.equalsIgnoreCase(flag)) {
+                return Optional.of(algorithm);
+            }
+        }
+        return Optional.empty();
+    }
+
+}
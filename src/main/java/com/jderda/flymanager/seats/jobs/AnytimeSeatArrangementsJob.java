@@ -0,0 +1,53 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+import lombok.Builder;
+
+/**
+ * Returns the best arrangement that can be found within given time. The simplified algorithm gives the first result
+ * right away, then the exact search of {@link IdenticalRowsSeatArrangementsJob} looks only for better arrangements 
+ * until the time is up. If the exact search manages to complete, the result is known to be optimal - this can be 
+ * checked with {@link #isProvenOptimal()} once the job is done.
+ */
+public class AnytimeSeatArrangementsJob implements Callable<SeatsArrangement> {
+
+    public static final Duration DEFAULT_TIME_LIMIT = Duration.ofMillis(200);
+
+    private final CompactInputData inputData;
+    private final Duration timeLimit;
+
+    private boolean provenOptimal;
+
+    @Builder
+    public AnytimeSeatArrangementsJob(InputData inputData, CompactInputData compactInputData, Duration timeLimit) {
+        this.inputData = (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
+        this.timeLimit = (timeLimit != null) ? timeLimit : DEFAULT_TIME_LIMIT;
+    }
+
+    @Override
+    public SeatsArrangement call() throws Exception {
+        long deadline = System.nanoTime() + timeLimit.toNanos();
+        SimpleAssignSeatsJob simpleJob = SimpleAssignSeatsJob.builder()
+                .compactInputData(inputData)
+                .build();
+        SeatsArrangement simpleArrangement = simpleJob.call();
+
+        RowStatesSearch search = new RowStatesSearch(inputData);
+        search.setIncumbentScore(Combination.getScore(inputData, simpleJob.rowOfGroup));
+        search.setDeadline(deadline);
+        int[] arrangement = search.search();
+        provenOptimal = search.isComplete();
+        return (arrangement != null) ? Combination.getSeatsArrangement(inputData, arrangement) : simpleArrangement;
+    }
+
+    public boolean isProvenOptimal() {
+        return provenOptimal;
+    }
+
+}
@@ -0,0 +1,263 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+
+/**
+ * Depth-first walk over the same group-to-row space that {@link Combination} enumerates, visiting the
+ * assignments in the same (lexicographic) order, but keeping per-row accumulators so that overflowing rows
+ * are cut off immediately and whole subtrees are skipped when even the optimistic bound cannot beat
+ * the best score found so far. Since the first optimal assignment in enumeration order is the one kept,
+ * the result is the same one the brute-force search would return. For the same reason the search stops as soon as
+ * it finds an assignment that reaches the {@link SatisfactionUpperBound} - nothing after it can be kept.
+ * 
+ * The space can be split by fixing the rows of the first groups (see {@link #expand(int[])}), and several
+ * searches can share one best score to prune against. Branches that only tie with the shared score are still
+ * visited, so each piece finds the first optimal assignment of its own part of the space.
+ * 
+ * Groups of the same size and number of window-preferring passengers are interchangeable - swapping rows of two of
+ * them gives the same score. Of all such swaps only the one with the earlier group in the lower row (or unassigned)
+ * is visited, as it always comes first in enumeration order. On typical inputs, full of single passengers and pairs,
+ * that leaves a small fraction of the space, and the result is still the one the brute-force search returns.
+ * An instance is meant to be searched once, use {@link #copy()} to get a fresh one for the same input.
+ * Search stops soon after its thread is interrupted (see {@link #isInterrupted()}).
+ */
+class BranchAndBoundSearch {
+
+    static final int UNASSIGNED = -1;
+    private static final int VISITS_BETWEEN_INTERRUPTION_CHECKS = 1024;
+
+    private final int numberOfRows;
+    private final int numberOfSeatsInRow;
+    private final int[] groupSizes;
+    private final int[] groupWindows;
+    private final int[] previousEquivalentGroups;
+    private final int[] remainingPassengers;
+    private final int maximumScore;
+    private final AtomicInteger sharedBestScore;
+
+    private final int[] arrangement;
+    private final int[] rowSeats;
+    private final int[] rowWindows;
+    private final int[] rowGroups;
+    private int freeSeats;
+
+    private int bestScore = -1;
+    private int[] bestArrangement;
+
+    private long visitedNodes;
+    private long overflowingNodes;
+    private long prunedNodes;
+    private boolean interrupted;
+
+    BranchAndBoundSearch(CompactInputData input) {
+        this(input, null);
+    }
+
+    BranchAndBoundSearch(CompactInputData input, AtomicInteger sharedBestScore) {
+        int numberOfGroups = input.getNumberOfGroups();
+        this.numberOfRows = input.getNumberOfRows();
+        this.numberOfSeatsInRow = input.getNumberOfSeatsInRow();
+        this.groupSizes = input.getGroupSizes();
+        this.groupWindows = input.getWindowCounts();
+        this.previousEquivalentGroups = input.getPreviousEquivalentGroups();
+        this.remainingPassengers = new int[numberOfGroups+1];
+        for (int i=numberOfGroups-1; i>=0; i--) {
+            remainingPassengers[i] = remainingPassengers[i+1] + groupSizes[i];
+        }
+        this.freeSeats = numberOfRows*numberOfSeatsInRow;
+        this.maximumScore = SatisfactionUpperBound.of(input).getSatisfiedPassengers();
+        this.arrangement = new int[numberOfGroups];
+        this.rowSeats = new int[numberOfRows];
+        this.rowWindows = new int[numberOfRows];
+        this.rowGroups = new int[numberOfRows];
+        this.sharedBestScore = sharedBestScore;
+    }
+
+    private BranchAndBoundSearch(BranchAndBoundSearch template) {
+        this.numberOfRows = template.numberOfRows;
+        this.numberOfSeatsInRow = template.numberOfSeatsInRow;
+        this.groupSizes = template.groupSizes;
+        this.groupWindows = template.groupWindows;
+        this.previousEquivalentGroups = template.previousEquivalentGroups;
+        this.remainingPassengers = template.remainingPassengers;
+        this.maximumScore = template.maximumScore;
+        this.sharedBestScore = template.sharedBestScore;
+        this.freeSeats = numberOfRows*numberOfSeatsInRow;
+        this.arrangement = new int[groupSizes.length];
+        this.rowSeats = new int[numberOfRows];
+        this.rowWindows = new int[numberOfRows];
+        this.rowGroups = new int[numberOfRows];
+    }
+
+    BranchAndBoundSearch copy() {
+        return new BranchAndBoundSearch(this);
+    }
+
+    int[] search() {
+        return search(new int[0]);
+    }
+
+    /**
+     * Searches only the assignments starting with given prefix, returns null if none of them beats the best score.
+     */
+    int[] search(int[] prefix) {
+        int score = 0;
+        for (int i=0; i<prefix.length; i++) {
+            arrangement[i] = prefix[i];
+            if (prefix[i] != UNASSIGNED) {
+                score += assign(i, prefix[i]);
+            }
+        }
+        visit(prefix.length, score);
+        SolverMetrics.getInstance().recordSearch(visitedNodes, overflowingNodes, prunedNodes);
+        return bestArrangement;
+    }
+
+    /**
+     * Returns all prefixes one group longer than given one, in enumeration order, skipping those that overflow
+     * a row or that are equivalent to a previous one.
+     */
+    List<int[]> expand(int[] prefix) {
+        int[] seats = new int[numberOfRows];
+        int[] groups = new int[numberOfRows];
+        for (int i=0; i<prefix.length; i++) {
+            if (prefix[i] != UNASSIGNED) {
+                seats[prefix[i]] += groupSizes[i];
+                groups[prefix[i]]++;
+            }
+        }
+        List<int[]> result = new ArrayList<>();
+        int depth = prefix.length;
+        if (depth == groupSizes.length) {
+            return result;
+        }
+        int lowestRow = getLowestRow(prefix, depth);
+        if (lowestRow == UNASSIGNED) {
+            result.add(withNextRow(prefix, UNASSIGNED));
+        }
+        boolean emptyRowVisited = false;
+        for (int row=Math.max(0, lowestRow); row<numberOfRows; row++) {
+            if (seats[row]+groupSizes[depth] > numberOfSeatsInRow) {
+                continue;
+            }
+            if (groups[row] == 0) {
+                if (emptyRowVisited) {
+                    continue;
+                }
+                emptyRowVisited = true;
+            }
+            result.add(withNextRow(prefix, row));
+        }
+        return result;
+    }
+
+    /**
+     * Lowest row (or unassigned) that the group at given depth can take - not below the previous equivalent group.
+     */
+    private int getLowestRow(int[] assignment, int depth) {
+        int previous = previousEquivalentGroups[depth];
+        return (previous < 0) ? UNASSIGNED : assignment[previous];
+    }
+
+    private static int[] withNextRow(int[] prefix, int row) {
+        int[] result = new int[prefix.length+1];
+        System.arraycopy(prefix, 0, result, 0, prefix.length);
+        result[prefix.length] = row;
+        return result;
+    }
+
+    int getNumberOfGroups() {
+        return groupSizes.length;
+    }
+
+    int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * Whether the search was stopped because its thread was interrupted - the result is then not optimal.
+     */
+    boolean isInterrupted() {
+        return interrupted;
+    }
+
+    int getBestScore() {
+        return bestScore;
+    }
+
+    private boolean isOptimal() {
+        return bestScore >= maximumScore;
+    }
+
+    private int assign(int group, int row) {
+        int dissatisfiedBefore = Math.max(0, rowWindows[row]-2);
+        int dissatisfiedAfter = Math.max(0, rowWindows[row]+groupWindows[group]-2);
+        rowSeats[row] += groupSizes[group];
+        rowWindows[row] += groupWindows[group];
+        rowGroups[row]++;
+        freeSeats -= groupSizes[group];
+        return groupSizes[group] - (dissatisfiedAfter-dissatisfiedBefore);
+    }
+
+    private void unassign(int group, int row) {
+        rowSeats[row] -= groupSizes[group];
+        rowWindows[row] -= groupWindows[group];
+        rowGroups[row]--;
+        freeSeats += groupSizes[group];
+    }
+
+    private void visit(int depth, int score) {
+        if (++visitedNodes % VISITS_BETWEEN_INTERRUPTION_CHECKS == 0) {
+            interrupted |= Thread.currentThread().isInterrupted();
+        }
+        if (interrupted) {
+            return;
+        }
+        int bound = score + Math.min(remainingPassengers[depth], freeSeats);
+        if (bound <= bestScore || (sharedBestScore != null && bound < sharedBestScore.get())) {
+            prunedNodes++;
+            return;
+        }
+        if (depth == arrangement.length) {
+            bestScore = score;
+            bestArrangement = arrangement.clone();
+            if (sharedBestScore != null) {
+                sharedBestScore.accumulateAndGet(score, Math::max);
+            }
+            return;
+        }
+
+        int lowestRow = getLowestRow(arrangement, depth);
+        if (lowestRow == UNASSIGNED) {
+            arrangement[depth] = UNASSIGNED;
+            visit(depth+1, score);
+        }
+
+        int size = groupSizes[depth];
+        boolean emptyRowVisited = false;
+        for (int row=Math.max(0, lowestRow); row<numberOfRows && !isOptimal(); row++) {
+            if (rowSeats[row]+size > numberOfSeatsInRow) {
+                overflowingNodes++;
+                continue;
+            }
+            //empty rows are interchangeable, and the first one always comes first in enumeration order
+            if (rowGroups[row] == 0) {
+                if (emptyRowVisited) {
+                    continue;
+                }
+                emptyRowVisited = true;
+            }
+            arrangement[depth] = row;
+            int gain = assign(depth, row);
+            visit(depth+1, score + gain);
+            unassign(depth, row);
+        }
+        arrangement[depth] = UNASSIGNED;
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.concurrent.Callable;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exact solver returning the same arrangement as {@link CheckAllPossibileSeatArrangementsJob}, but instead of
+ * generating every combination and scoring it afterwards, it assigns groups one by one (depth-first) and drops
+ * a branch as soon as any row overflows, or when the passengers of the remaining groups cannot improve on the
+ * best score found so far. The search stops right away once all passengers that can get onboard are satisfied.
+ * 
+ * Worst-case complexity is still exponential, but on typical inputs most of the space is never visited.
+ */
+@Builder
+@RequiredArgsConstructor
+public class BranchAndBoundSeatArrangementsJob implements Callable<SeatsArrangement> {
+
+    private final InputData inputData;
+    private final CompactInputData compactInputData;
+
+    @Override
+    public SeatsArrangement call() throws Exception {
+        CompactInputData data = (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
+        BranchAndBoundSearch search = new BranchAndBoundSearch(data);
+        int[] bestArrangement = search.search();
+        if (search.isInterrupted()) {
+            throw new InterruptedException();
+        }
+        return Combination.getSeatsArrangement(data, bestArrangement);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.concurrent.Callable;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+import lombok.Builder;
+
+/**
+ * Runs the exact search only when it's needed. The simplified algorithm gives its arrangement first, and if that one
+ * already reaches the {@link SatisfactionUpperBound}, it's known to be optimal and is returned right away. Otherwise
+ * the exact search of {@link IdenticalRowsSeatArrangementsJob} looks for a better arrangement (stopping as soon as
+ * it reaches the bound), so the result is always optimal.
+ */
+public class CertifiedSeatArrangementsJob implements Callable<SeatsArrangement> {
+
+    private final CompactInputData inputData;
+
+    private SatisfactionUpperBound upperBound;
+    private boolean exactSearchSkipped;
+
+    @Builder
+    public CertifiedSeatArrangementsJob(InputData inputData, CompactInputData compactInputData) {
+        this.inputData = (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
+    }
+
+    @Override
+    public SeatsArrangement call() throws Exception {
+        upperBound = SatisfactionUpperBound.of(inputData);
+        SimpleAssignSeatsJob simpleJob = SimpleAssignSeatsJob.builder()
+                .compactInputData(inputData)
+                .build();
+        SeatsArrangement simpleArrangement = simpleJob.call();
+        exactSearchSkipped = upperBound.isReachedBy(simpleArrangement);
+        if (exactSearchSkipped) {
+            return simpleArrangement;
+        }
+
+        RowStatesSearch search = new RowStatesSearch(inputData);
+        search.setIncumbentScore(Combination.getScore(inputData, simpleJob.rowOfGroup));
+        int[] arrangement = search.search();
+        if (!search.isComplete()) {
+            throw new InterruptedException();
+        }
+        return (arrangement != null) ? Combination.getSeatsArrangement(inputData, arrangement) : simpleArrangement;
+    }
+
+    /**
+     * Bound that the arrangement was compared with - available once the job is done.
+     */
+    public SatisfactionUpperBound getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Whether the arrangement of the simplified algorithm was proven optimal by the bound, without any search.
+     */
+    public boolean isExactSearchSkipped() {
+        return exactSearchSkipped;
+    }
+
+}
@@ -1,20 +1,19 @@
 package com.jderda.flymanager.seats.jobs;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.Callable;
 
-import com.jderda.flymanager.seats.domain.input.AbstractGroup;
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
 import com.jderda.flymanager.seats.domain.input.InputData;
-import com.jderda.flymanager.seats.domain.input.Passenger;
 import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
-import com.jderda.flymanager.seats.domain.output.SeatsRow;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
 
 import lombok.Builder;
-import lombok.RequiredArgsConstructor;
 
 /**
  * This implementation checks all possible permutations of groups assignment, covers all corner cases.
@@ -24,123 +23,245 @@ import lombok.RequiredArgsConstructor;
  * 
  * In worst-case real-life scenario (800 individual passengers, 80 rows), this requires ~10^1600 individual checks,
  * making it unrealistic.
+ * 
+ * Assignments that differ only in the order of equivalent groups (same size and number of window-preferring
+ * passengers) are checked once, see {@link Combination} - for n single passengers and m rows that's C(n+m, m)
+ * assignments instead of (m+1)^n. The result is the same, as the first of the best assignments is always checked.
  */
-@Builder
-@RequiredArgsConstructor
 public class CheckAllPossibileSeatArrangementsJob implements Callable<SeatsArrangement> {
 
+    public static final Duration DEFAULT_CHECKPOINT_INTERVAL = Duration.ofMinutes(1);
+
+    private static final int COMBINATIONS_BETWEEN_INTERRUPTION_CHECKS = 1 << 16;
+    //shards take every N-th prefix, so there should be a fair number of prefixes per shard to even out their sizes
+    private static final int PREFIXES_PER_SHARD = 16;
+
     private final InputData inputData;
+    private final CompactInputData compactInputData;
+    private final Path checkpointFile;
+    private final Duration checkpointInterval;
+    private final boolean resume;
+    private boolean equivalentGroupsPermuted;
+
+    /**
+     * With checkpoint file given, position of the search and the best arrangement found so far are saved to it every
+     * {@code checkpointInterval} (one minute by default), when the search is interrupted and once more when it's done.
+     * With {@code resume} the search continues from the saved position (if the file exists) instead of starting over.
+     */
+    @Builder
+    public CheckAllPossibileSeatArrangementsJob(InputData inputData, CompactInputData compactInputData,
+            Path checkpointFile, Duration checkpointInterval, boolean resume) {
+        this.inputData = inputData;
+        this.compactInputData = compactInputData;
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = (checkpointInterval != null) ? checkpointInterval : DEFAULT_CHECKPOINT_INTERVAL;
+        this.resume = resume;
+    }
+
+    /**
+     * Makes the search visit every order of equivalent groups as well - only for tests, which check that skipping
+     * them doesn't change the result.
+     */
+    CheckAllPossibileSeatArrangementsJob permutingEquivalentGroups() {
+        this.equivalentGroupsPermuted = true;
+        return this;
+    }
 
     @Override
     public SeatsArrangement call() throws Exception {
-        Optional<Combination> bestCombination = Optional.empty(); 
-        int bestScore = -1;
-        Optional<Combination> nextCombination = Optional.of(new Combination(inputData));
-        while (nextCombination.isPresent()) {
-            Combination combination = nextCombination.get();
-            Integer combinationScore = combination.getScore();
-            if (combinationScore > bestScore) {
-                bestCombination = nextCombination;
-                bestScore = combinationScore;
-            }
-            nextCombination = combination.getNext();
-        }
-        return bestCombination.get().getSeatsArrangement();
+        CompactInputData data = getData();
+        Search search = search(data, 1, 1, 0);
+        return Combination.getSeatsArrangement(data, search.bestArrangement);
     }
 
-}
+    /**
+     * Searches only a slice of all combinations - the one numbered {@code shard} (counting from 1) out of
+     * {@code numberOfShards} - so that the search can be split between processes, or machines, that know nothing
+     * about each other. Slices are made by fixing rows of the first few groups (every such prefix goes to one shard), 
+     * and their results can be combined with {@link ShardResult#merge(List)} into exactly what {@link #call()} returns.
+     */
+    public ShardResult searchShard(int shard, int numberOfShards) throws InterruptedException, IOException {
+        if (numberOfShards < 1 || shard < 1 || shard > numberOfShards) {
+            throw new IllegalArgumentException("Invalid shard " + shard + "/" + numberOfShards);
+        }
+        CompactInputData data = getData();
+        int prefixLength = 0;
+        long numberOfPrefixes = 1;
+        while (prefixLength < data.getNumberOfGroups() && numberOfPrefixes < (long) numberOfShards*PREFIXES_PER_SHARD) {
+            prefixLength++;
+            numberOfPrefixes *= data.getNumberOfRows() + 1;
+        }
+        Search search = search(data, shard, numberOfShards, prefixLength);
+        return new ShardResult(shard, numberOfShards, search.bestScore, 
+                (search.bestArrangement != null) ? search.bestArrangement : new int[0]);
+    }
 
-class Combination {
-    
-    public final static int INVALID_CASE_SCORE = -1;
-    
-    private final InputData input;
-    private final Integer[] arrangement;
-    
-    @Builder
-    public Combination(InputData input) {
-        this(input, new Integer[input.getGroups().size()]);
+    private CompactInputData getData() {
+        return (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
     }
-    
-    private Combination(InputData input, Integer[] arrangement) {
-        super();
-        this.input = input;
-        this.arrangement = arrangement;
+
+    private Search search(CompactInputData data, int shard, int numberOfShards, int prefixLength)
+            throws InterruptedException, IOException {
+        Search search = new Search(data, shard, numberOfShards, prefixLength);
+        if (resume && checkpointFile != null && Files.exists(checkpointFile)) {
+            search.restore(SearchCheckpoint.read(checkpointFile));
+        }
+        search.run();
+        search.recordMetrics();
+        if (checkpointFile != null) {
+            search.getCheckpoint().write(checkpointFile);
+        }
+        return search;
     }
 
-    public Optional<Combination> getNext() {
-        Integer[] newArrangement = Arrays.copyOf(arrangement, arrangement.length);
-        for (int i = newArrangement.length-1; i>=0; i--) {
-            if (newArrangement[i] == null) {
-                newArrangement[i] = 0;
-                return Optional.of(new Combination(input, newArrangement));
-            } else {
-                newArrangement[i] = newArrangement[i]+1;
-                if (newArrangement[i] < input.getNumberOfRows()) {
-                    return Optional.of(new Combination(input, newArrangement));
-                } else {
-                    newArrangement[i] = null;
+    /**
+     * Visits combinations that start with every N-th prefix (rows of the first groups), numbered from the given one.
+     */
+    private class Search {
+
+        private final CompactInputData data;
+        private final int shard;
+        private final int numberOfShards;
+        private final int prefixLength;
+        private final long numberOfPrefixes;
+        private final int[] previousEquivalentGroups;
+
+        private long prefixNumber;
+        private Combination combination;
+        private int[] bestArrangement;
+        private int bestScore = Combination.INVALID_CASE_SCORE;
+        private long combinations;
+        private long invalidCombinations;
+        //metrics are recorded only for combinations visited by this run, not the ones before it was resumed
+        private long restoredCombinations;
+        private long restoredInvalidCombinations;
+        private long nextCheckpoint = System.nanoTime() + checkpointInterval.toNanos();
+
+        private Search(CompactInputData data, int shard, int numberOfShards, int prefixLength) {
+            this.data = data;
+            this.shard = shard;
+            this.numberOfShards = numberOfShards;
+            this.prefixLength = prefixLength;
+            this.numberOfPrefixes = (long) Math.pow(data.getNumberOfRows() + 1, prefixLength);
+            this.prefixNumber = shard-1;
+            this.previousEquivalentGroups = data.getPreviousEquivalentGroups();
+            if (equivalentGroupsPermuted) {
+                Arrays.fill(previousEquivalentGroups, -1);
+            }
+        }
+
+        private void run() throws InterruptedException, IOException {
+            for (; prefixNumber<numberOfPrefixes; prefixNumber+=numberOfShards) {
+                //resumed search continues after the combination it stopped at
+                if (combination == null) {
+                    int[] prefix = getPrefix(prefixNumber);
+                    //prefixes with equivalent groups out of order are skipped, and so are the ones that alone don't fit
+                    if (!Combination.isOrdered(prefix, previousEquivalentGroups) || !fits(prefix)) {
+                        continue;
+                    }
+                    combination = new Combination(data, prefix, previousEquivalentGroups);
+                    visit();
+                }
+                while (combination.next()) {
+                    visit();
                 }
+                combination = null;
             }
         }
-        return Optional.empty();
-    }
-    
-    public Integer getScore() {
-        int numberOfSatisfiedPassengers = 0;
-        for (int rowIndex=0; rowIndex<input.getNumberOfRows(); rowIndex++) {
-            List<AbstractGroup> rowGroups = getRowGroups(rowIndex);
-            int numberOfPassengers = rowGroups.stream().mapToInt(grp -> grp.getOccupiedSeats()).sum();
-            int numberOfWindowPassengers = (int) rowGroups.stream()
-                    .flatMap(grp -> grp.getPassengers().stream())
-                    .filter(psg -> psg.hasWindowSeatPreference())
-                    .count();
-            if (numberOfPassengers<=input.getNumberOfSeatsInRow()) {
-                numberOfSatisfiedPassengers += numberOfPassengers - Math.max(0, numberOfWindowPassengers-2);
-            } else {
-                return INVALID_CASE_SCORE;
+
+        private int[] getPrefix(long number) {
+            int radix = data.getNumberOfRows() + 1;
+            int[] prefix = new int[prefixLength];
+            for (int group=prefixLength-1; group>=0; group--) {
+                prefix[group] = (int) (number % radix) - 1;
+                number /= radix;
             }
+            return prefix;
         }
-        return numberOfSatisfiedPassengers;
-    }
-    
-    private List<AbstractGroup> getRowGroups(int rowIndex) {
-        List<AbstractGroup> result = new ArrayList<>();
-        for (int i=0; i<arrangement.length; i++) {
-            if (arrangement[i] != null && arrangement[i] == rowIndex) {
-                result.add(input.getGroups().get(i));
+
+        private boolean fits(int[] prefix) {
+            int[] rowSeats = new int[data.getNumberOfRows()];
+            for (int group=0; group<prefix.length; group++) {
+                if (prefix[group] != BranchAndBoundSearch.UNASSIGNED) {
+                    rowSeats[prefix[group]] += data.getGroupSizes()[group];
+                    if (rowSeats[prefix[group]] > data.getNumberOfSeatsInRow()) {
+                        return false;
+                    }
+                }
             }
+            return true;
         }
-        return result;
-    }
-    
-    private List<Passenger> getUnassignedPassengers() {
-        List<Passenger> result = new ArrayList<>();
-        for (int i=0; i<arrangement.length; i++) {
-            if (arrangement[i] == null) {
-                result.addAll(input.getGroups().get(i).getPassengers());
+
+        private void visit() throws InterruptedException, IOException {
+            int combinationScore = combination.getScore();
+            if (combinationScore == Combination.INVALID_CASE_SCORE) {
+                invalidCombinations++;
+            }
+            //combinations are visited in lexicographic order, but a resumed search compares them with the best one
+            //saved before, so ties are resolved explicitly
+            if (bestArrangement == null) {
+                bestArrangement = combination.getArrangement().clone();
+                bestScore = combinationScore;
+            } else if (combinationScore > bestScore
+                    || (combinationScore == bestScore && combination.isBefore(bestArrangement))) {
+                System.arraycopy(combination.getArrangement(), 0, bestArrangement, 0, bestArrangement.length);
+                bestScore = combinationScore;
+            }
+            //current combination is compared with the best one before the checkpoint, as resumed search starts after it
+            if (++combinations % COMBINATIONS_BETWEEN_INTERRUPTION_CHECKS == 0) {
+                //interrupted search is saved as well, so that it can be resumed from where it stopped
+                boolean interrupted = Thread.interrupted();
+                if (checkpointFile != null && (interrupted || System.nanoTime() - nextCheckpoint >= 0)) {
+                    getCheckpoint().write(checkpointFile);
+                    nextCheckpoint = System.nanoTime() + checkpointInterval.toNanos();
+                }
+                if (interrupted) {
+                    throw new InterruptedException();
+                }
             }
         }
-        return result;
-    }
 
-    public SeatsArrangement getSeatsArrangement() {
-        List<SeatsRow> rows = new ArrayList<>();
-        LinkedList<Passenger> unassignedPassengers = new LinkedList<>(getUnassignedPassengers());
-        for (int rowIndex=0; rowIndex<input.getNumberOfRows(); rowIndex++) {
-            List<AbstractGroup> rowGroups = getRowGroups(rowIndex);
-            SeatsRow seatsRow = SeatsRow.builder()
-                    .capacity(input.getNumberOfSeatsInRow())
-                    .groups(rowGroups)
+        private SearchCheckpoint getCheckpoint() {
+            return SearchCheckpoint.builder()
+                    .numberOfRows(data.getNumberOfRows())
+                    .numberOfSeatsInRow(data.getNumberOfSeatsInRow())
+                    .groupSizes(data.getGroupSizes())
+                    .windowCounts(data.getWindowCounts())
+                    .shard(shard)
+                    .numberOfShards(numberOfShards)
+                    .prefixLength(prefixLength)
+                    .prefixNumber(prefixNumber)
+                    .combination((combination != null) ? combination.getState() : null)
+                    .bestScore(bestScore)
+                    .bestArrangement(bestArrangement)
+                    .combinations(combinations)
+                    .invalidCombinations(invalidCombinations)
                     .build();
-            while (!(seatsRow.isFull() || unassignedPassengers.isEmpty())) {
-                seatsRow.add(unassignedPassengers.poll());
+        }
+
+        private void restore(SearchCheckpoint checkpoint) throws IOException {
+            if (checkpoint.getNumberOfRows() != data.getNumberOfRows()
+                    || checkpoint.getNumberOfSeatsInRow() != data.getNumberOfSeatsInRow()
+                    || !Arrays.equals(checkpoint.getGroupSizes(), data.getGroupSizes())
+                    || !Arrays.equals(checkpoint.getWindowCounts(), data.getWindowCounts())
+                    || checkpoint.getShard() != shard || checkpoint.getNumberOfShards() != numberOfShards
+                    || checkpoint.getPrefixLength() != prefixLength) {
+                throw new IOException("Checkpoint was saved for different input data or shard");
             }
-            rows.add(seatsRow);
+            prefixNumber = checkpoint.getPrefixNumber();
+            combination = (checkpoint.getCombination() != null)
+                    ? new Combination(data, prefixLength, checkpoint.getCombination(), previousEquivalentGroups)
+                    : null;
+            bestScore = checkpoint.getBestScore();
+            bestArrangement = checkpoint.getBestArrangement();
+            combinations = restoredCombinations = checkpoint.getCombinations();
+            invalidCombinations = restoredInvalidCombinations = checkpoint.getInvalidCombinations();
+        }
+
+        private void recordMetrics() {
+            SolverMetrics.getInstance().recordSearch(combinations - restoredCombinations,
+                    invalidCombinations - restoredInvalidCombinations, 0);
         }
-        return SeatsArrangement.builder()
-                .rows(rows)
-                .build();
     }
-    
-}
\ No newline at end of file
+
+}
@@ -0,0 +1,222 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.jderda.flymanager.seats.domain.input.AbstractGroup;
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsRow;
+
+/**
+ * Mutable cursor over assignments of groups to rows (or to no row at all), visited in lexicographic order (with
+ * unassigned groups first, the last group changing most often). Groups with the same size and number of
+ * window-preferring passengers are interchangeable, so only assignments where such a group is in a row no lower than
+ * the previous group of its kind are visited - every skipped one scores the same as one of them that comes before it.
+ * Score is updated from per-row accumulators when groups move, without allocating anything.
+ */
+public class Combination {
+    
+    public final static int INVALID_CASE_SCORE = -1;
+    
+    private final int numberOfRows;
+    private final int numberOfSeatsInRow;
+    private final int[] groupSizes;
+    private final int[] groupWindows;
+    private final int[] previousEquivalentGroups;
+    private final int firstGroup;
+
+    private final int[] arrangement;
+    private final int[] rowSeats;
+    private final int[] rowWindows;
+    private int overflowingRows;
+    private int score;
+    
+    public Combination(CompactInputData input) {
+        this(input, new int[0], input.getPreviousEquivalentGroups());
+    }
+
+    /**
+     * Cursor over the assignments that start with given rows of the first groups - only the remaining groups move.
+     * Groups are compared only with the previous equivalent ones given (-1 for none), so with none of them given
+     * all assignments are visited.
+     */
+    Combination(CompactInputData input, int[] prefix, int[] previousEquivalentGroups) {
+        this.numberOfRows = input.getNumberOfRows();
+        this.numberOfSeatsInRow = input.getNumberOfSeatsInRow();
+        this.groupSizes = input.getGroupSizes();
+        this.groupWindows = input.getWindowCounts();
+        this.previousEquivalentGroups = previousEquivalentGroups;
+        this.firstGroup = prefix.length;
+        this.arrangement = new int[groupSizes.length];
+        Arrays.fill(arrangement, BranchAndBoundSearch.UNASSIGNED);
+        this.rowSeats = new int[numberOfRows];
+        this.rowWindows = new int[numberOfRows];
+        for (int group=0; group<arrangement.length; group++) {
+            move(group, (group < prefix.length) ? prefix[group] : getLowestRow(group));
+        }
+    }
+
+    /**
+     * Cursor at the position saved with {@link #getState()}, moving only groups after the first {@code firstGroup}.
+     */
+    Combination(CompactInputData input, int firstGroup, int[][] state, int[] previousEquivalentGroups) {
+        this(input, Arrays.copyOf(state[0], firstGroup), previousEquivalentGroups);
+        if (state.length != 1 || state[0].length != arrangement.length) {
+            throw new IllegalArgumentException("Combination state does not match input data");
+        }
+        for (int group=firstGroup; group<arrangement.length; group++) {
+            move(group, state[0][group]);
+        }
+    }
+
+    /**
+     * Position of the cursor - current arrangement - from which it can be recreated.
+     */
+    int[][] getState() {
+        return new int[][] {arrangement.clone()};
+    }
+
+    /**
+     * Checks whether given rows of the first groups don't put any group below the previous equivalent one.
+     */
+    static boolean isOrdered(int[] prefix, int[] previousEquivalentGroups) {
+        for (int group=0; group<prefix.length; group++) {
+            int previous = previousEquivalentGroups[group];
+            if (previous >= 0 && prefix[group] < prefix[previous]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves to the next combination, returns false if all of them were already visited. The last group that can
+     * move to a higher row does so, and all groups after it go back to the lowest rows they can take.
+     */
+    public boolean next() {
+        int group = arrangement.length-1;
+        while (group >= firstGroup && arrangement[group] == numberOfRows-1) {
+            group--;
+        }
+        if (group < firstGroup) {
+            return false;
+        }
+        move(group, arrangement[group]+1);
+        for (int nextGroup=group+1; nextGroup<arrangement.length; nextGroup++) {
+            move(nextGroup, getLowestRow(nextGroup));
+        }
+        return true;
+    }
+
+    private int getLowestRow(int group) {
+        int previous = previousEquivalentGroups[group];
+        return (previous < 0) ? BranchAndBoundSearch.UNASSIGNED : arrangement[previous];
+    }
+
+    private void move(int group, int to) {
+        int from = arrangement[group];
+        if (from == to) {
+            return;
+        }
+        arrangement[group] = to;
+        if (from != BranchAndBoundSearch.UNASSIGNED) {
+            updateRow(from, -groupSizes[group], -groupWindows[group]);
+        }
+        if (to != BranchAndBoundSearch.UNASSIGNED) {
+            updateRow(to, groupSizes[group], groupWindows[group]);
+        }
+    }
+
+    private void updateRow(int row, int seats, int windows) {
+        score -= getRowScore(row);
+        if (rowSeats[row] > numberOfSeatsInRow) {
+            overflowingRows--;
+        }
+        rowSeats[row] += seats;
+        rowWindows[row] += windows;
+        if (rowSeats[row] > numberOfSeatsInRow) {
+            overflowingRows++;
+        }
+        score += getRowScore(row);
+    }
+
+    private int getRowScore(int row) {
+        return rowSeats[row] - Math.max(0, rowWindows[row]-2);
+    }
+    
+    public int getScore() {
+        return (overflowingRows > 0) ? INVALID_CASE_SCORE : score;
+    }
+
+    public int[] getArrangement() {
+        return arrangement;
+    }
+
+    /**
+     * Checks if current combination comes before given one in lexicographic order (with unassigned groups first).
+     */
+    public boolean isBefore(int[] otherArrangement) {
+        for (int i=0; i<arrangement.length; i++) {
+            if (arrangement[i] != otherArrangement[i]) {
+                return arrangement[i] < otherArrangement[i];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Score of given assignment of groups to rows, the same as {@link #getScore()} gives for it.
+     */
+    static int getScore(CompactInputData input, int[] arrangement) {
+        int[] rowWindows = new int[input.getNumberOfRows()];
+        int score = 0;
+        for (int group=0; group<arrangement.length; group++) {
+            if (arrangement[group] != BranchAndBoundSearch.UNASSIGNED) {
+                score += input.getGroupSizes()[group];
+                rowWindows[arrangement[group]] += input.getWindowCounts()[group];
+            }
+        }
+        for (int windows : rowWindows) {
+            score -= Math.max(0, windows-2);
+        }
+        return score;
+    }
+
+    /**
+     * Creates rows from given assignment of groups (unassigned groups are marked with -1), filling the remaining
+     * seats with passengers of unassigned groups.
+     */
+    static SeatsArrangement getSeatsArrangement(CompactInputData input, int[] arrangement) {
+        List<List<AbstractGroup>> rowGroups = new ArrayList<>();
+        for (int rowIndex=0; rowIndex<input.getNumberOfRows(); rowIndex++) {
+            rowGroups.add(new ArrayList<>());
+        }
+        LinkedList<Passenger> unassignedPassengers = new LinkedList<>();
+        for (int i=0; i<arrangement.length; i++) {
+            if (arrangement[i] == BranchAndBoundSearch.UNASSIGNED) {
+                unassignedPassengers.addAll(input.toGroup(i).getPassengers());
+            } else {
+                rowGroups.get(arrangement[i]).add(input.toGroup(i));
+            }
+        }
+        List<SeatsRow> rows = new ArrayList<>();
+        for (List<AbstractGroup> groups : rowGroups) {
+            SeatsRow seatsRow = SeatsRow.builder()
+                    .capacity(input.getNumberOfSeatsInRow())
+                    .groups(groups)
+                    .build();
+            while (!(seatsRow.isFull() || unassignedPassengers.isEmpty())) {
+                seatsRow.add(unassignedPassengers.poll());
+            }
+            rows.add(seatsRow);
+        }
+        return SeatsArrangement.builder()
+                .rows(rows)
+                .build();
+    }
+    
+}
@@ -0,0 +1,45 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.concurrent.Callable;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exact solver exploiting the fact that all rows are the same - same number of seats and two window seats each.
+ * Score of the remaining groups depends only on how many rows are in each state (seats taken, window seats taken),
+ * not on which row is which. The search assigns groups (largest first) to row states rather than to rows, and
+ * remembers for every multiset of row states the best score it was already reached with - reaching it again with
+ * no better score cannot lead to a better result. Together with bounding on the remaining capacity and window seats,
+ * that removes all permutations of rows that {@link Combination} goes through separately.
+ * <p>
+ * For generated manifests of narrow-body planes (~180 seats, at most one window-preferring passenger per group) that
+ * takes milliseconds. The bounds are weak when window-preferring passengers are about as many as window seats though
+ * - like a full plane of singles and pairs, each passenger preferring window seat with a chance of one in three. Then
+ * arrangements that leave one of them dissatisfied can't be told apart from the optimal ones early, and the search
+ * may take seconds or tens of seconds. Such flights should be solved with a time limit
+ * ({@link AnytimeSeatArrangementsJob}).
+ */
+@Builder
+@RequiredArgsConstructor
+public class IdenticalRowsSeatArrangementsJob implements Callable<SeatsArrangement> {
+
+    private final InputData inputData;
+    private final CompactInputData compactInputData;
+
+    @Override
+    public SeatsArrangement call() throws Exception {
+        CompactInputData data = (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
+        RowStatesSearch search = new RowStatesSearch(data);
+        int[] arrangement = search.search();
+        if (!search.isComplete()) {
+            throw new InterruptedException();
+        }
+        return Combination.getSeatsArrangement(data, arrangement);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.concurrent.Callable;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+import lombok.Builder;
+
+/**
+ * Simplified algorithm followed by {@link LocalSearchImprover}, which fixes most of the cases where the simplified
+ * algorithm is wrong, while staying fast for large inputs: the improver gets as much time as the simplified algorithm
+ * took, so the whole job takes about twice as long as the simplified algorithm alone (unless the number of
+ * {@code iterations} is given).
+ */
+public class ImprovedSimpleAssignSeatsJob implements Callable<SeatsArrangement> {
+
+    private final CompactInputData inputData;
+    private final Long iterations;
+    private final Long seed;
+
+    @Builder
+    public ImprovedSimpleAssignSeatsJob(InputData inputData, CompactInputData compactInputData, Long iterations, 
+            Long seed) {
+        this.inputData = (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
+        this.iterations = iterations;
+        this.seed = seed;
+    }
+
+    @Override
+    public SeatsArrangement call() throws Exception {
+        long start = System.nanoTime();
+        SimpleAssignSeatsJob simpleJob = SimpleAssignSeatsJob.builder()
+                .compactInputData(inputData)
+                .build();
+        SeatsArrangement arrangement = simpleJob.call();
+        long end = System.nanoTime();
+        return LocalSearchImprover.builder()
+                .inputData(inputData)
+                .iterations(iterations)
+                .deadline(end + (end - start))
+                .seed(seed)
+                .build()
+                .improve(arrangement, simpleJob.rowOfGroup);
+    }
+
+}
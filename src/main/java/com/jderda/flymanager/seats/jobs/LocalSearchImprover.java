@@ -0,0 +1,373 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.jderda.flymanager.seats.domain.input.AbstractGroup;
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsRow;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+
+import lombok.Builder;
+
+/**
+ * Improves a finished arrangement with simulated annealing - groups are moved to other rows (or off the plane) and
+ * swapped between rows, accepting worse arrangements with decreasing probability, for a fixed number of iterations or
+ * until a deadline.
+ * <p>
+ * Score is the same as printed for the arrangement ({@link SeatsRow#getNumberOfSatisfiedPassengers()}), which counts
+ * window-preferring passengers seated as single fillers too. For given groups in rows, the best placement of fillers
+ * is known: window-preferring ones go where group passengers leave free window seats, and only as many of them as
+ * needed to fill all seats. So the search moves groups only, with per-row and total counters that give the score
+ * of every move in constant time, and fillers are placed once at the end.
+ * <p>
+ * When the thread is interrupted, the search stops early and the best arrangement found so far is returned.
+ */
+public class LocalSearchImprover {
+
+    private static final int DEFAULT_ITERATIONS_PER_GROUP = 100;
+    private static final double INITIAL_TEMPERATURE = 1.0;
+    private static final double FINAL_TEMPERATURE = 0.05;
+    private static final int WINDOW_SEATS = 2;
+    private static final int SIMILAR_SIZE_RANGE = 8;
+    private static final int ITERATIONS_PER_TEMPERATURE = 256;
+
+    private final CompactInputData inputData;
+    private final long iterations;
+    private final long defaultIterations;
+    private final Long deadline;
+    private final SplittableRandom random;
+    private final int[] groupsBySize;
+    private final int[] positionBySize;
+
+    private final double[] acceptance;
+    private double temperature;
+
+    private final int[] rowOfGroup;
+    private final int[] rowSeats;
+    private final int[] rowWindows;
+    private int rowScores;
+    private int freeWindowSeats;
+    private int freeSeats;
+    private int passengersLeft;
+    private int windowPassengersLeft;
+
+    /**
+     * With {@code deadline} (in terms of {@link System#nanoTime()}) the search runs until then, cooling down with time
+     * (but not faster than in the default number of iterations) - it's checked every few hundred iterations, so the
+     * first of them are always done. Given number of {@code iterations} takes precedence, and without either of them
+     * there are 100 per group.
+     */
+    @Builder
+    public LocalSearchImprover(CompactInputData inputData, Long iterations, Long deadline, Long seed) {
+        this.inputData = inputData;
+        this.defaultIterations = (long) DEFAULT_ITERATIONS_PER_GROUP*inputData.getNumberOfGroups();
+        if (iterations != null) {
+            this.iterations = iterations;
+            this.deadline = null;
+        } else {
+            this.iterations = (deadline != null) ? Long.MAX_VALUE : defaultIterations;
+            this.deadline = deadline;
+        }
+        this.random = new SplittableRandom((seed != null) ? seed : 0);
+        int numberOfGroups = inputData.getNumberOfGroups();
+        long[] sortKeys = new long[numberOfGroups];
+        for (int group=0; group<numberOfGroups; group++) {
+            sortKeys[group] = ((long) inputData.getGroupSizes()[group] << 32) | group;
+        }
+        Arrays.sort(sortKeys);
+        this.groupsBySize = new int[numberOfGroups];
+        this.positionBySize = new int[numberOfGroups];
+        for (int position=0; position<numberOfGroups; position++) {
+            groupsBySize[position] = (int) sortKeys[position];
+            positionBySize[groupsBySize[position]] = position;
+        }
+        this.acceptance = new double[2*inputData.getNumberOfSeatsInRow()+1];
+        this.rowOfGroup = new int[inputData.getNumberOfGroups()];
+        this.rowSeats = new int[inputData.getNumberOfRows()];
+        this.rowWindows = new int[inputData.getNumberOfRows()];
+    }
+
+    /**
+     * Returns better arrangement with the same groups and passengers, or given one if no better was found.
+     */
+    public SeatsArrangement improve(SeatsArrangement arrangement) {
+        readGroupsInRows(arrangement);
+        return search(arrangement);
+    }
+
+    /**
+     * Same as {@link #improve(SeatsArrangement)}, for an arrangement of which rows of groups are already known (like
+     * the one made by {@link SimpleAssignSeatsJob}) - groups don't have to be found by their passengers then, which
+     * takes about as long as making the arrangement.
+     */
+    SeatsArrangement improve(SeatsArrangement arrangement, int[] rowOfGroups) {
+        clearRows();
+        for (int group=0; group<rowOfGroups.length; group++) {
+            if (rowOfGroups[group] != BranchAndBoundSearch.UNASSIGNED) {
+                move(group, rowOfGroups[group]);
+            }
+        }
+        return search(arrangement);
+    }
+
+    private SeatsArrangement search(SeatsArrangement arrangement) {
+        int initialScore = arrangement.getNumberOfSatisfiedPassengers();
+        int bestScore = getScore();
+        int[] bestRowOfGroup = rowOfGroup.clone();
+
+        int numberOfGroups = rowOfGroup.length;
+        int numberOfRows = rowSeats.length;
+        long overflowingMoves = 0;
+        long iteration = 0;
+        long start = System.nanoTime();
+        for (; iteration<iterations && numberOfGroups>0; iteration++) {
+            if (iteration % ITERATIONS_PER_TEMPERATURE == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                double progress = (double) iteration/iterations;
+                if (deadline != null) {
+                    long now = System.nanoTime();
+                    if (iteration > 0 && now - deadline >= 0) {
+                        break;
+                    }
+                    //with little time the search stops early, but doesn't cool down faster than in default iterations
+                    double timeProgress = (deadline - start > 0) ? (double) (now - start)/(deadline - start) : 1.0;
+                    progress = Math.min(1.0, Math.min(timeProgress, (double) iteration/defaultIterations));
+                }
+                setTemperature(INITIAL_TEMPERATURE*Math.pow(FINAL_TEMPERATURE/INITIAL_TEMPERATURE, progress));
+            }
+            int group = random.nextInt(numberOfGroups);
+            int from = rowOfGroup[group];
+            int score = getScore();
+            if (random.nextBoolean()) {
+                int to = random.nextInt(numberOfRows+1) - 1;
+                if (to == from || !fits(group, to, BranchAndBoundSearch.UNASSIGNED)) {
+                    overflowingMoves += (to == from) ? 0 : 1;
+                    continue;
+                }
+                move(group, to);
+                if (!isAccepted(getScore()-score)) {
+                    move(group, from);
+                }
+            } else {
+                int otherGroup = getSwapCandidate(group);
+                int to = rowOfGroup[otherGroup];
+                if (to == from || !fits(group, to, otherGroup) || !fits(otherGroup, from, group)) {
+                    overflowingMoves += (to == from) ? 0 : 1;
+                    continue;
+                }
+                move(group, to);
+                move(otherGroup, from);
+                if (!isAccepted(getScore()-score)) {
+                    move(otherGroup, to);
+                    move(group, from);
+                }
+            }
+            if (getScore() > bestScore) {
+                bestScore = getScore();
+                System.arraycopy(rowOfGroup, 0, bestRowOfGroup, 0, numberOfGroups);
+            }
+        }
+
+        SolverMetrics.getInstance().recordSearch(iteration, overflowingMoves, 0);
+        if (bestScore <= initialScore) {
+            return arrangement;
+        }
+        SeatsArrangement result = createArrangement(bestRowOfGroup);
+        if (result.getNumberOfSatisfiedPassengers() != bestScore) {
+            throw new IllegalStateException(String.format("Improved arrangement scores %d, but the search found %d",
+                    result.getNumberOfSatisfiedPassengers(), bestScore));
+        }
+        return result;
+    }
+
+    private void readGroupsInRows(SeatsArrangement arrangement) {
+        clearRows();
+        Map<Integer, Integer> groupOfPassenger = new HashMap<>();
+        int[] offsets = inputData.getGroupOffsets();
+        for (int group=0; group<rowOfGroup.length; group++) {
+            for (int passenger=offsets[group]; passenger<offsets[group+1]; passenger++) {
+                groupOfPassenger.put(inputData.getPassengerIds()[passenger], group);
+            }
+        }
+        List<SeatsRow> rows = arrangement.getRows();
+        for (int row=0; row<rows.size(); row++) {
+            for (AbstractGroup group : rows.get(row).getGroups()) {
+                if (!(group instanceof Passenger) && group.getOccupiedSeats() > 0) {
+                    move(findGroup(group, groupOfPassenger), row);
+                }
+            }
+        }
+    }
+
+    private void clearRows() {
+        Arrays.fill(rowSeats, 0);
+        Arrays.fill(rowWindows, 0);
+        rowScores = 0;
+        passengersLeft = 0;
+        windowPassengersLeft = 0;
+        for (int group=0; group<rowOfGroup.length; group++) {
+            rowOfGroup[group] = BranchAndBoundSearch.UNASSIGNED;
+            passengersLeft += inputData.getGroupSizes()[group];
+            windowPassengersLeft += inputData.getWindowCounts()[group];
+        }
+        freeSeats = rowSeats.length*inputData.getNumberOfSeatsInRow();
+        freeWindowSeats = rowSeats.length*Math.min(WINDOW_SEATS, inputData.getNumberOfSeatsInRow());
+    }
+
+    /**
+     * Returns the input group that has exactly the passengers of given group seated together - an arrangement made
+     * for other input data (or with a group split between rows) can't be improved.
+     */
+    private int findGroup(AbstractGroup seatedGroup, Map<Integer, Integer> groupOfPassenger) {
+        Integer group = groupOfPassenger.get(seatedGroup.getPassengers().get(0).getId());
+        boolean matches = (group != null) && rowOfGroup[group] == BranchAndBoundSearch.UNASSIGNED
+                && seatedGroup.getPassengers().size() == inputData.getGroupSizes()[group];
+        for (Passenger passenger : seatedGroup.getPassengers()) {
+            matches &= group != null && group.equals(groupOfPassenger.get(passenger.getId()));
+        }
+        if (!matches) {
+            throw new IllegalArgumentException("Arrangement does not match input data, group of passenger " 
+                    + seatedGroup.getPassengers().get(0).getId() + " is not in it");
+        }
+        return group;
+    }
+
+    /**
+     * Groups of similar size are more likely to fit in place of each other, so half of the swaps are between them.
+     */
+    private int getSwapCandidate(int group) {
+        if (random.nextBoolean()) {
+            return random.nextInt(groupsBySize.length);
+        }
+        int position = positionBySize[group] + random.nextInt(2*SIMILAR_SIZE_RANGE+1) - SIMILAR_SIZE_RANGE;
+        return groupsBySize[Math.max(0, Math.min(groupsBySize.length-1, position))];
+    }
+
+    private boolean fits(int group, int row, int leavingGroup) {
+        if (row == BranchAndBoundSearch.UNASSIGNED) {
+            return true;
+        }
+        int leavingSeats = (leavingGroup != BranchAndBoundSearch.UNASSIGNED && rowOfGroup[leavingGroup] == row)
+                ? inputData.getGroupSizes()[leavingGroup]
+                : 0;
+        return rowSeats[row] - leavingSeats + inputData.getGroupSizes()[group] <= inputData.getNumberOfSeatsInRow();
+    }
+
+    /**
+     * Probabilities of accepting small losses are computed once per temperature, as most moves change score only a bit.
+     */
+    private void setTemperature(double temperature) {
+        this.temperature = temperature;
+        for (int loss=0; loss<acceptance.length; loss++) {
+            acceptance[loss] = Math.exp(-loss/temperature);
+        }
+    }
+
+    private boolean isAccepted(int delta) {
+        if (delta >= 0) {
+            return true;
+        }
+        double probability = (-delta < acceptance.length) ? acceptance[-delta] : Math.exp(delta/temperature);
+        return random.nextDouble() < probability;
+    }
+
+    private void move(int group, int row) {
+        int size = inputData.getGroupSizes()[group];
+        int windows = inputData.getWindowCounts()[group];
+        int from = rowOfGroup[group];
+        if (from == BranchAndBoundSearch.UNASSIGNED) {
+            passengersLeft -= size;
+            windowPassengersLeft -= windows;
+        } else {
+            updateRow(from, -size, -windows);
+        }
+        rowOfGroup[group] = row;
+        if (row == BranchAndBoundSearch.UNASSIGNED) {
+            passengersLeft += size;
+            windowPassengersLeft += windows;
+        } else {
+            updateRow(row, size, windows);
+        }
+    }
+
+    private void updateRow(int row, int seats, int windows) {
+        rowScores -= getRowScore(row);
+        freeSeats -= seats;
+        freeWindowSeats -= getFreeWindowSeats(row);
+        rowSeats[row] += seats;
+        rowWindows[row] += windows;
+        rowScores += getRowScore(row);
+        freeWindowSeats += getFreeWindowSeats(row);
+    }
+
+    private int getRowScore(int row) {
+        return rowSeats[row] - Math.max(0, rowWindows[row]-WINDOW_SEATS);
+    }
+
+    /**
+     * Window seats not taken by group passengers that a window-preferring filler can still sit in.
+     */
+    private int getFreeWindowSeats(int row) {
+        return Math.min(Math.max(0, WINDOW_SEATS-rowWindows[row]), inputData.getNumberOfSeatsInRow()-rowSeats[row]);
+    }
+
+    private int getWindowFillers() {
+        int fillers = Math.min(passengersLeft, freeSeats);
+        return Math.max(0, fillers - (passengersLeft-windowPassengersLeft));
+    }
+
+    private int getScore() {
+        return rowScores - Math.max(0, getWindowFillers()-freeWindowSeats);
+    }
+
+    private SeatsArrangement createArrangement(int[] bestRowOfGroup) {
+        for (int group=0; group<rowOfGroup.length; group++) {
+            move(group, bestRowOfGroup[group]);
+        }
+        List<SeatsRow> rows = new ArrayList<>();
+        for (int row=0; row<rowSeats.length; row++) {
+            rows.add(new SeatsRow(inputData.getNumberOfSeatsInRow()));
+        }
+        List<Integer> windowFillers = new ArrayList<>();
+        List<Integer> otherFillers = new ArrayList<>();
+        int[] offsets = inputData.getGroupOffsets();
+        for (int group=0; group<rowOfGroup.length; group++) {
+            if (rowOfGroup[group] != BranchAndBoundSearch.UNASSIGNED) {
+                rows.get(rowOfGroup[group]).add(inputData.toGroup(group));
+                continue;
+            }
+            for (int passenger=offsets[group]; passenger<offsets[group+1]; passenger++) {
+                (inputData.getWindowSeatPreferences()[passenger] ? windowFillers : otherFillers).add(passenger);
+            }
+        }
+
+        //window-preferring fillers take free window seats first, the rest only if there is no one else to seat
+        int windowFillersToSeat = getWindowFillers();
+        int nextWindowFiller = 0;
+        for (int row=0; row<rowSeats.length && nextWindowFiller<windowFillersToSeat; row++) {
+            for (int seat=getFreeWindowSeats(row); seat>0 && nextWindowFiller<windowFillersToSeat; seat--) {
+                rows.get(row).add(inputData.toPassenger(windowFillers.get(nextWindowFiller++)));
+            }
+        }
+        int nextOtherFiller = 0;
+        for (SeatsRow row : rows) {
+            while (!row.isFull() && nextWindowFiller<windowFillersToSeat) {
+                row.add(inputData.toPassenger(windowFillers.get(nextWindowFiller++)));
+            }
+            while (!row.isFull() && nextOtherFiller<otherFillers.size()) {
+                row.add(inputData.toPassenger(otherFillers.get(nextOtherFiller++)));
+            }
+        }
+        return SeatsArrangement.builder().rows(rows).build();
+    }
+
+}
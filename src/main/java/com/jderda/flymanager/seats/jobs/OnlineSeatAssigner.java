@@ -0,0 +1,81 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jderda.flymanager.seats.domain.input.AbstractGroup;
+import com.jderda.flymanager.seats.domain.input.Group;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsRow;
+
+import lombok.Builder;
+
+/**
+ * Seats groups as they arrive (like at check-in), with the same rule as {@link SimpleAssignSeatsJob} uses for every
+ * group, but without rerunning it for all groups each time - the row is found with {@link RowCapacityIndex} in 
+ * logarithmic time. Groups that cannot sit together anymore wait, and their passengers fill the free seats in the 
+ * current arrangement. If groups arrive in the order the simplified algorithm sorts them, the arrangement is the same
+ * as it would give.
+ * <p>
+ * Groups can be added from many threads at once.
+ */
+public class OnlineSeatAssigner {
+
+    private final int numberOfSeatsInRow;
+    private final RowCapacityIndex rowCapacityIndex;
+    private final List<SeatsRow> rows;
+    private final List<Group> waitingGroups;
+
+    @Builder
+    public OnlineSeatAssigner(int numberOfRows, int numberOfSeatsInRow) {
+        this.numberOfSeatsInRow = numberOfSeatsInRow;
+        this.rowCapacityIndex = new RowCapacityIndex(numberOfRows, numberOfSeatsInRow);
+        this.rows = new ArrayList<>();
+        for (int i=0; i<numberOfRows; i++) {
+            rows.add(new SeatsRow(numberOfSeatsInRow));
+        }
+        this.waitingGroups = new ArrayList<>();
+    }
+
+    /**
+     * Seats the group together if possible, returns false if it doesn't fit in any row.
+     */
+    public synchronized boolean add(Group group) {
+        int size = group.getOccupiedSeats();
+        int windows = (int) group.getPassengers().stream().filter(Passenger::hasWindowSeatPreference).count();
+        int row = rowCapacityIndex.findRow(size, windows);
+        if (row == BranchAndBoundSearch.UNASSIGNED) {
+            waitingGroups.add(group);
+            return false;
+        }
+        rowCapacityIndex.add(row, size, windows);
+        rows.get(row).add(group);
+        return true;
+    }
+
+    /**
+     * Current arrangement, with passengers of groups that could not sit together in the remaining seats. Later changes
+     * are not reflected in the returned arrangement.
+     */
+    public synchronized SeatsArrangement getSeatsArrangement() {
+        List<SeatsRow> result = new ArrayList<>();
+        for (SeatsRow row : rows) {
+            result.add(new SeatsRow(numberOfSeatsInRow, new ArrayList<AbstractGroup>(row.getGroups())));
+        }
+        int nextRow = 0;
+        for (Group group : waitingGroups) {
+            for (Passenger passenger : group.getPassengers()) {
+                while (nextRow < result.size() && result.get(nextRow).isFull()) {
+                    nextRow++;
+                }
+                if (nextRow == result.size()) {
+                    return SeatsArrangement.builder().rows(result).build();
+                }
+                result.get(nextRow).add(passenger);
+            }
+        }
+        return SeatsArrangement.builder().rows(result).build();
+    }
+
+}
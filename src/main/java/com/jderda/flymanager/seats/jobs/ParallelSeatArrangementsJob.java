@@ -0,0 +1,100 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Parallel version of {@link BranchAndBoundSeatArrangementsJob}. The space of assignments is split by fixing 
+ * rows of the first few groups, and every such prefix is searched as a separate fork/join task, so idle 
+ * workers can steal the remaining pieces. All tasks prune against one shared best score. 
+ * 
+ * Partial results are merged in enumeration order (ties go to the earlier prefix), which makes the result
+ * identical to the one returned by the serial job regardless of the number of threads.
+ */
+@Builder
+@RequiredArgsConstructor
+public class ParallelSeatArrangementsJob implements Callable<SeatsArrangement> {
+
+    private static final int TASKS_PER_THREAD = 16;
+
+    private final InputData inputData;
+    private final CompactInputData compactInputData;
+    private final Integer parallelism;
+
+    @Override
+    public SeatsArrangement call() throws Exception {
+        CompactInputData data = (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
+        int threads = (parallelism != null) ? parallelism : Runtime.getRuntime().availableProcessors();
+        BranchAndBoundSearch search = new BranchAndBoundSearch(data, new AtomicInteger(-1));
+        int splitDepth = getSplitDepth(search, threads);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            //waiting for the result (unlike invoke) can be interrupted - the pool is then stopped, interrupting workers
+            PartialResult result = pool.submit(new PrefixSearchTask(search, new int[0], splitDepth)).get();
+            return Combination.getSeatsArrangement(data, result.arrangement);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int getSplitDepth(BranchAndBoundSearch search, int threads) {
+        int depth = 0;
+        long numberOfPrefixes = 1;
+        while (depth < search.getNumberOfGroups() && numberOfPrefixes < (long) threads*TASKS_PER_THREAD) {
+            numberOfPrefixes *= search.getNumberOfRows()+1;
+            depth++;
+        }
+        return depth;
+    }
+
+    @RequiredArgsConstructor
+    private static class PartialResult {
+        private final int score;
+        private final int[] arrangement;
+    }
+
+    @RequiredArgsConstructor
+    private static class PrefixSearchTask extends RecursiveTask<PartialResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BranchAndBoundSearch template;
+        private final int[] prefix;
+        private final int splitDepth;
+
+        @Override
+        protected PartialResult compute() {
+            if (prefix.length >= splitDepth) {
+                BranchAndBoundSearch search = template.copy();
+                int[] arrangement = search.search(prefix);
+                return (arrangement == null) ? null : new PartialResult(search.getBestScore(), arrangement);
+            }
+            List<PrefixSearchTask> subtasks = new ArrayList<>();
+            for (int[] childPrefix : template.expand(prefix)) {
+                subtasks.add(new PrefixSearchTask(template, childPrefix, splitDepth));
+            }
+            invokeAll(subtasks);
+            PartialResult best = null;
+            for (PrefixSearchTask subtask : subtasks) {
+                PartialResult result = subtask.join();
+                if (result != null && (best == null || result.score > best.score)) {
+                    best = result;
+                }
+            }
+            return best;
+        }
+    }
+
+}
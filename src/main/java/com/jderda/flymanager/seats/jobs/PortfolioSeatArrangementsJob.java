@@ -0,0 +1,153 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs heuristic and exact solvers at the same time, so that there is no need to guess up front which one fits
+ * the input. The simplified algorithm and its improved variant give an answer quickly, while exact searches run
+ * in the background - {@link IdenticalRowsSeatArrangementsJob} always, and {@link BranchAndBoundSeatArrangementsJob}
+ * only when the estimated search space is small enough for it to have a chance. As soon as an exact solver
+ * finishes, its (optimal) arrangement is returned; when time is up, the best heuristic result is returned instead.
+ * Solvers that are still running are cancelled by interrupting them. If none of them finished (not even shortly
+ * after the time limit), the job fails with {@link TimeoutException}.
+ * <p>
+ * All solvers share one read-only {@link CompactInputData}. If no executor is given, each run uses its own pool
+ * with a thread per solver.
+ */
+public class PortfolioSeatArrangementsJob implements Callable<SeatsArrangement> {
+
+    public static final Duration DEFAULT_TIME_LIMIT = Duration.ofSeconds(1);
+
+    //additional time for the simplified algorithm when no solver finished within the time limit
+    private static final Duration HEURISTIC_GRACE_PERIOD = Duration.ofSeconds(1);
+
+    //branch-and-bound is started only for search spaces below 10^(this) group-to-row assignments
+    private static final double MAXIMUM_BRANCH_AND_BOUND_SPACE = 30;
+
+    private final CompactInputData inputData;
+    private final Duration timeLimit;
+    private final ExecutorService executor;
+
+    private boolean provenOptimal;
+
+    @Builder
+    public PortfolioSeatArrangementsJob(InputData inputData, CompactInputData compactInputData, Duration timeLimit,
+            ExecutorService executor) {
+        this.inputData = (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
+        this.timeLimit = (timeLimit != null) ? timeLimit : DEFAULT_TIME_LIMIT;
+        this.executor = executor;
+    }
+
+    @Override
+    public SeatsArrangement call() throws Exception {
+        long deadline = System.nanoTime() + timeLimit.toNanos();
+        List<Solver> solvers = getSolvers();
+        ExecutorService pool = (executor != null) ? executor : Executors.newFixedThreadPool(solvers.size());
+        CompletionService<Result> completionService = new ExecutorCompletionService<>(pool);
+        List<Future<Result>> futures = new ArrayList<>();
+        try {
+            for (Solver solver : solvers) {
+                futures.add(completionService.submit(solver));
+            }
+            SeatsArrangement best = null;
+            for (int finished=0; finished<solvers.size(); finished++) {
+                Future<Result> future = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    break;
+                }
+                Result result;
+                try {
+                    result = future.get();
+                } catch (ExecutionException e) {
+                    continue;
+                }
+                if (result.exact) {
+                    provenOptimal = true;
+                    return result.arrangement;
+                }
+                if (best == null
+                        || result.arrangement.getNumberOfSatisfiedPassengers() > best.getNumberOfSatisfiedPassengers()) {
+                    best = result.arrangement;
+                }
+            }
+            if (best != null) {
+                return best;
+            }
+            //the simplified algorithm is the first one started and takes a fraction of any reasonable time limit,
+            //so it gets a bit more time if it didn't manage to finish - there is nothing else to return
+            try {
+                return futures.get(0).get(HEURISTIC_GRACE_PERIOD.toNanos(), TimeUnit.NANOSECONDS).arrangement;
+            } catch (TimeoutException e) {
+                throw new TimeoutException("No solver finished within " + timeLimit.plus(HEURISTIC_GRACE_PERIOD));
+            }
+        } finally {
+            for (Future<Result> future : futures) {
+                future.cancel(true);
+            }
+            if (executor == null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Whether the returned arrangement was found by an exact solver - can be checked once the job is done.
+     */
+    public boolean isProvenOptimal() {
+        return provenOptimal;
+    }
+
+    /**
+     * Logarithm (base 10) of the number of assignments of groups to rows, or to no row at all.
+     */
+    double getSearchSpaceSize() {
+        return inputData.getNumberOfGroups() * Math.log10(inputData.getNumberOfRows() + 1);
+    }
+
+    private List<Solver> getSolvers() {
+        List<Solver> solvers = new ArrayList<>();
+        solvers.add(new Solver(false, SimpleAssignSeatsJob.builder().compactInputData(inputData).build()));
+        solvers.add(new Solver(false, ImprovedSimpleAssignSeatsJob.builder().compactInputData(inputData).build()));
+        solvers.add(new Solver(true, IdenticalRowsSeatArrangementsJob.builder().compactInputData(inputData).build()));
+        if (getSearchSpaceSize() <= MAXIMUM_BRANCH_AND_BOUND_SPACE) {
+            solvers.add(new Solver(true, BranchAndBoundSeatArrangementsJob.builder().compactInputData(inputData).build()));
+        }
+        return solvers;
+    }
+
+    @RequiredArgsConstructor
+    private static class Solver implements Callable<Result> {
+        private final boolean exact;
+        private final Callable<SeatsArrangement> job;
+
+        @Override
+        public Result call() throws Exception {
+            return new Result(exact, job.call());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Result {
+        private final boolean exact;
+        private final SeatsArrangement arrangement;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.jderda.flymanager.seats.jobs;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * What a single repair of an arrangement changed - passengers who are onboard both before and after the repair, but
+ * in another seat, are the ones whose boarding passes have to be reissued.
+ */
+@Data
+@Builder
+public class RepairReport {
+
+    private final int repairedRows;
+    private final int movedPassengers;
+    private final int boardedPassengers;
+    private final int deboardedPassengers;
+
+}
@@ -0,0 +1,117 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.Arrays;
+
+/**
+ * Rows indexed by the number of free seats, separately for each number of window seats not yet wanted by group 
+ * passengers (two, one or none), so that the row the simplified algorithm would choose for a group is found in
+ * logarithmic time instead of checking every row.
+ * <p>
+ * For every class there's a tree of maximum free seats over ranges of rows (rows of other classes count as having
+ * none), which gives the first row with enough free seats. The chosen row is the one where the group gets most window
+ * seats, and the first one of those if there are more - the same as checking all rows in order with
+ * {@link com.jderda.flymanager.seats.domain.output.SeatsRow#getPotentialGroupSatisfaction}.
+ */
+class RowCapacityIndex {
+
+    private static final int WINDOW_SEATS = 2;
+    private static final int NOT_IN_CLASS = -1;
+
+    private final int numberOfRows;
+    private final int leaves;
+    private final int[][] maxFreeSeats;
+    private final int[] freeSeats;
+    private final int[] windowPreferringPassengers;
+
+    RowCapacityIndex(int numberOfRows, int numberOfSeatsInRow) {
+        this.numberOfRows = numberOfRows;
+        this.leaves = Integer.highestOneBit(Math.max(1, numberOfRows-1))*2;
+        this.maxFreeSeats = new int[WINDOW_SEATS+1][2*leaves];
+        this.freeSeats = new int[numberOfRows];
+        this.windowPreferringPassengers = new int[numberOfRows];
+        for (int[] tree : maxFreeSeats) {
+            Arrays.fill(tree, NOT_IN_CLASS);
+        }
+        Arrays.fill(freeSeats, numberOfSeatsInRow);
+        for (int row=0; row<numberOfRows; row++) {
+            maxFreeSeats[WINDOW_SEATS][leaves+row] = numberOfSeatsInRow;
+        }
+        for (int node=leaves-1; node>0; node--) {
+            maxFreeSeats[WINDOW_SEATS][node] = Math.max(maxFreeSeats[WINDOW_SEATS][2*node], 
+                    maxFreeSeats[WINDOW_SEATS][2*node+1]);
+        }
+    }
+
+    /**
+     * Row the simplified algorithm would choose for a group, or {@link BranchAndBoundSearch#UNASSIGNED} if it
+     * does not fit anywhere.
+     */
+    int findRow(int size, int windows) {
+        int bestRow = BranchAndBoundSearch.UNASSIGNED;
+        int bestWindowSeats = -1;
+        for (int windowSeatsLeft=WINDOW_SEATS; windowSeatsLeft>=0; windowSeatsLeft--) {
+            int row = findFirstRow(maxFreeSeats[windowSeatsLeft], size);
+            int windowSeats = Math.max(0, windowSeatsLeft-windows);
+            if (row != BranchAndBoundSearch.UNASSIGNED 
+                    && (windowSeats > bestWindowSeats || (windowSeats == bestWindowSeats && row < bestRow))) {
+                bestRow = row;
+                bestWindowSeats = windowSeats;
+            }
+        }
+        return bestRow;
+    }
+
+    void add(int row, int seats, int windows) {
+        int classBefore = getWindowSeatsLeft(row);
+        freeSeats[row] -= seats;
+        windowPreferringPassengers[row] += windows;
+        int classAfter = getWindowSeatsLeft(row);
+        if (classBefore != classAfter) {
+            update(maxFreeSeats[classBefore], row, NOT_IN_CLASS);
+        }
+        update(maxFreeSeats[classAfter], row, freeSeats[row]);
+    }
+
+    /**
+     * Frees seats of a group that left the row - the row may move to another class when window seats are freed.
+     */
+    void remove(int row, int seats, int windows) {
+        add(row, -seats, -windows);
+    }
+
+    int getFreeSeats(int row) {
+        return freeSeats[row];
+    }
+
+    int getWindowPreferringPassengers(int row) {
+        return windowPreferringPassengers[row];
+    }
+
+    int getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    private int getWindowSeatsLeft(int row) {
+        return Math.max(0, WINDOW_SEATS-windowPreferringPassengers[row]);
+    }
+
+    private void update(int[] tree, int row, int value) {
+        int node = leaves+row;
+        tree[node] = value;
+        for (node/=2; node>0; node/=2) {
+            tree[node] = Math.max(tree[2*node], tree[2*node+1]);
+        }
+    }
+
+    private int findFirstRow(int[] tree, int seats) {
+        if (tree[1] < seats) {
+            return BranchAndBoundSearch.UNASSIGNED;
+        }
+        int node = 1;
+        while (node < leaves) {
+            node = (tree[2*node] >= seats) ? 2*node : 2*node+1;
+        }
+        return node-leaves;
+    }
+
+}
@@ -0,0 +1,296 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+
+/**
+ * Search over multisets of row states described in {@link IdenticalRowsSeatArrangementsJob} - shared with the anytime
+ * and certified jobs, which start it from an already known score and may stop it at a deadline.
+ */
+class RowStatesSearch {
+
+    private static final int WINDOW_STATES = 3;
+    private static final int NO_STATE = -1;
+    private static final int VISITS_BETWEEN_DEADLINE_CHECKS = 1024;
+
+    private final int numberOfRows;
+    private final int numberOfSeatsInRow;
+    private final int[] order;
+    private final int[] groupSizes;
+    private final int[] groupWindows;
+    private final int[] remainingPassengers;
+    private final int[] remainingWindows;
+    private final int[] remainingPassengersWithoutWindowSeat;
+    private final int[][] fillableSeats;
+    private final int[][] remainingPassengersInGroupsUpTo;
+    private final int maximumScore;
+
+    private final int[] rowsInState;
+    private final int bitsPerState;
+    private final List<Map<RowStates, Integer>> reachedScores;
+    private final int[] chosenStates;
+    private int freeWindowSeats;
+
+    private int bestScore = -1;
+    private int[] bestChosenStates;
+
+    private long visitedNodes;
+    private long prunedNodes;
+
+    private long deadline = Long.MAX_VALUE;
+    private int visitsUntilDeadlineCheck = 1;
+    private boolean timedOut;
+
+    RowStatesSearch(CompactInputData input) {
+        int numberOfGroups = input.getNumberOfGroups();
+        this.numberOfRows = input.getNumberOfRows();
+        this.numberOfSeatsInRow = input.getNumberOfSeatsInRow();
+        this.groupSizes = new int[numberOfGroups];
+        this.groupWindows = new int[numberOfGroups];
+        this.remainingPassengers = new int[numberOfGroups+1];
+        this.remainingWindows = new int[numberOfGroups+1];
+        this.remainingPassengersWithoutWindowSeat = new int[numberOfGroups+1];
+
+        //larger groups first - they limit the number of reachable row states the most
+        List<Integer> indices = new ArrayList<>();
+        for (int i=0; i<numberOfGroups; i++) {
+            indices.add(i);
+        }
+        int[] sizes = input.getGroupSizes();
+        int[] windows = input.getWindowCounts();
+        indices.sort((first, second) -> (sizes[first] != sizes[second]) 
+                ? sizes[second] - sizes[first] 
+                : windows[second] - windows[first]);
+        this.order = new int[numberOfGroups];
+        for (int i=0; i<numberOfGroups; i++) {
+            order[i] = indices.get(i);
+            groupSizes[i] = sizes[order[i]];
+            groupWindows[i] = windows[order[i]];
+        }
+        for (int i=numberOfGroups-1; i>=0; i--) {
+            remainingPassengers[i] = remainingPassengers[i+1] + groupSizes[i];
+            //a group sits in one row, so no more than two of its window-preferring passengers can get a window seat
+            remainingWindows[i] = remainingWindows[i+1] + Math.min(groupWindows[i], 2);
+            remainingPassengersWithoutWindowSeat[i] = remainingPassengersWithoutWindowSeat[i+1]
+                    + Math.max(0, groupWindows[i]-2);
+        }
+        this.fillableSeats = getFillableSeats();
+        this.remainingPassengersInGroupsUpTo = new int[numberOfGroups+1][numberOfSeatsInRow+1];
+        for (int i=numberOfGroups-1; i>=0; i--) {
+            for (int size=0; size<=numberOfSeatsInRow; size++) {
+                remainingPassengersInGroupsUpTo[i][size] = remainingPassengersInGroupsUpTo[i+1][size]
+                        + ((groupSizes[i] <= size) ? groupSizes[i] : 0);
+            }
+        }
+
+        this.rowsInState = new int[(numberOfSeatsInRow+1)*WINDOW_STATES];
+        this.rowsInState[state(0, 0)] = numberOfRows;
+        //at least one bit, even for a plane without rows
+        this.bitsPerState = Math.max(1, 32 - Integer.numberOfLeadingZeros(numberOfRows));
+        this.reachedScores = new ArrayList<>();
+        for (int i=0; i<=numberOfGroups; i++) {
+            reachedScores.add(new HashMap<>());
+        }
+        this.chosenStates = new int[numberOfGroups];
+        this.freeWindowSeats = numberOfRows*2;
+        this.maximumScore = Math.min(getUpperBound(0), SatisfactionUpperBound.of(input).getSatisfiedPassengers());
+    }
+
+    /**
+     * Stops the search when {@link System#nanoTime()} reaches given value (or when its thread is interrupted), 
+     * keeping the best arrangement found so far.
+     */
+    void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Makes the search look only for arrangements with score higher than given one.
+     */
+    void setIncumbentScore(int score) {
+        this.bestScore = score;
+    }
+
+    /**
+     * Whether the whole space was searched, so that the result (or incumbent, if nothing better was found) is optimal.
+     */
+    boolean isComplete() {
+        return !timedOut;
+    }
+
+    /**
+     * Returns arrangement with the best score, or null if none was better than the incumbent.
+     */
+    int[] search() {
+        visit(0, 0);
+        SolverMetrics.getInstance().recordSearch(visitedNodes, 0, prunedNodes);
+        if (bestChosenStates == null) {
+            return null;
+        }
+
+        //replay chosen row states on actual rows
+        int[] arrangement = new int[order.length];
+        int[] rowStates = new int[numberOfRows];
+        for (int depth=0; depth<order.length; depth++) {
+            arrangement[order[depth]] = BranchAndBoundSearch.UNASSIGNED;
+            if (bestChosenStates[depth] == NO_STATE) {
+                continue;
+            }
+            for (int row=0; row<numberOfRows; row++) {
+                if (rowStates[row] == bestChosenStates[depth]) {
+                    arrangement[order[depth]] = row;
+                    rowStates[row] = getTargetState(rowStates[row], depth);
+                    break;
+                }
+            }
+        }
+        return arrangement;
+    }
+
+    /**
+     * For every depth and number of free seats in a row, the most seats that sizes of the remaining groups can add up to.
+     */
+    private int[][] getFillableSeats() {
+        int[][] result = new int[order.length+1][];
+        boolean[] reachable = new boolean[numberOfSeatsInRow+1];
+        reachable[0] = true;
+        for (int depth=order.length; depth>=0; depth--) {
+            if (depth < order.length && groupSizes[depth] > 0) {
+                for (int seats=groupSizes[depth]; seats<=numberOfSeatsInRow; seats++) {
+                    reachable[seats] |= reachable[seats-groupSizes[depth]];
+                }
+            }
+            result[depth] = new int[numberOfSeatsInRow+1];
+            for (int seats=1; seats<=numberOfSeatsInRow; seats++) {
+                result[depth][seats] = reachable[seats] ? seats : result[depth][seats-1];
+            }
+        }
+        return result;
+    }
+
+    private int state(int seats, int windows) {
+        return seats*WINDOW_STATES + Math.min(windows, WINDOW_STATES-1);
+    }
+
+    private int getTargetState(int fromState, int depth) {
+        return state(fromState/WINDOW_STATES + groupSizes[depth], fromState%WINDOW_STATES + groupWindows[depth]);
+    }
+
+    private int getUpperBound(int depth) {
+        //window-preferring passengers that cannot get a window seat are either dissatisfied or not in a group at all
+        int missingWindowSeats = Math.max(0, remainingWindows[depth]-freeWindowSeats);
+        //rows with only few seats left can take only small groups, so there may not be enough of them to fill those rows
+        int[] seatsToFillInRowsWithFreeSeats = new int[numberOfSeatsInRow+1];
+        int seatsToFill = 0;
+        for (int state=0; state<rowsInState.length; state++) {
+            int free = numberOfSeatsInRow - state/WINDOW_STATES;
+            seatsToFillInRowsWithFreeSeats[free] += rowsInState[state]*fillableSeats[depth][free];
+            seatsToFill += rowsInState[state]*fillableSeats[depth][free];
+        }
+        int bound = remainingPassengers[depth] - remainingPassengersWithoutWindowSeat[depth] - missingWindowSeats;
+        int seatsToFillInSmallerRows = 0;
+        for (int free=0; free<=numberOfSeatsInRow; free++) {
+            seatsToFillInSmallerRows += seatsToFillInRowsWithFreeSeats[free];
+            int smallerRowsBound = Math.min(seatsToFillInSmallerRows, remainingPassengersInGroupsUpTo[depth][free]);
+            bound = Math.min(bound, smallerRowsBound + seatsToFill - seatsToFillInSmallerRows);
+        }
+        return bound;
+    }
+
+    private boolean isPastDeadline() {
+        if (--visitsUntilDeadlineCheck == 0) {
+            visitsUntilDeadlineCheck = VISITS_BETWEEN_DEADLINE_CHECKS;
+            timedOut = System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted();
+        }
+        return timedOut;
+    }
+
+    private void visit(int depth, int score) {
+        visitedNodes++;
+        if (isPastDeadline() || score + getUpperBound(depth) <= bestScore) {
+            prunedNodes++;
+            return;
+        }
+        if (depth == order.length) {
+            bestScore = score;
+            bestChosenStates = chosenStates.clone();
+            return;
+        }
+        RowStates key = new RowStates(rowsInState, bitsPerState);
+        Integer reachedScore = reachedScores.get(depth).get(key);
+        if (reachedScore != null && reachedScore >= score) {
+            prunedNodes++;
+            return;
+        }
+        reachedScores.get(depth).put(key, score);
+
+        int size = groupSizes[depth];
+        //identical groups are interchangeable, so only the last ones of a kind are left out
+        boolean sameAsPrevious = depth > 0 && groupSizes[depth-1] == size && groupWindows[depth-1] == groupWindows[depth];
+        if (sameAsPrevious && chosenStates[depth-1] == NO_STATE) {
+            chosenStates[depth] = NO_STATE;
+            visit(depth+1, score);
+            return;
+        }
+        //fullest rows first, and rows where all window preferences can be met before others
+        for (int pass=0; pass<2; pass++) {
+            for (int seats=numberOfSeatsInRow-size; seats>=0; seats--) {
+                for (int windows=0; windows<WINDOW_STATES && bestScore<maximumScore; windows++) {
+                    int from = state(seats, windows);
+                    int dissatisfied = Math.max(0, windows+groupWindows[depth]-2) - Math.max(0, windows-2);
+                    if (rowsInState[from] == 0 || (dissatisfied == 0) != (pass == 0)) {
+                        continue;
+                    }
+                    int to = getTargetState(from, depth);
+                    int takenWindowSeats = Math.min(2, windows+groupWindows[depth]) - windows;
+                    rowsInState[from]--;
+                    rowsInState[to]++;
+                    freeWindowSeats -= takenWindowSeats;
+                    chosenStates[depth] = from;
+
+                    visit(depth+1, score + size - dissatisfied);
+
+                    rowsInState[from]++;
+                    rowsInState[to]--;
+                    freeWindowSeats += takenWindowSeats;
+                }
+            }
+        }
+        if (bestScore < maximumScore) {
+            chosenStates[depth] = NO_STATE;
+            visit(depth+1, score);
+        }
+    }
+
+    private static class RowStates {
+
+        private final long[] packed;
+        private final int hash;
+
+        RowStates(int[] rowsInState, int bitsPerState) {
+            int statesPerWord = 64/bitsPerState;
+            packed = new long[(rowsInState.length+statesPerWord-1)/statesPerWord];
+            for (int i=0; i<rowsInState.length; i++) {
+                packed[i/statesPerWord] |= ((long) rowsInState[i]) << (bitsPerState*(i%statesPerWord));
+            }
+            hash = Arrays.hashCode(packed);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof RowStates) && Arrays.equals(packed, ((RowStates) other).packed);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.jderda.flymanager.seats.jobs;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+/**
+ * Number of satisfied passengers that no arrangement can exceed, computed from two relaxations of the problem that
+ * take linear time to solve:
+ * <ul>
+ * <li>window seats - every row has two of them, so out of all window-preferring passengers in groups that fit in
+ * a row, at most two per row can be satisfied, and at most two per group, as a group sits in one row (groups larger
+ * than a row can't be satisfied at all),</li>
+ * <li>capacity - every row can take at most as many passengers as the largest sum of group sizes that fits in it
+ * (e.g. only 3 out of 4 seats if all groups have 3 passengers).</li>
+ * </ul>
+ * If an arrangement reaches the bound, it's optimal and there's no need to run any exact search for it.
+ */
+public class SatisfactionUpperBound {
+
+    private final int satisfiedPassengers;
+
+    private SatisfactionUpperBound(int satisfiedPassengers) {
+        this.satisfiedPassengers = satisfiedPassengers;
+    }
+
+    public static SatisfactionUpperBound of(InputData inputData) {
+        return of(CompactInputData.of(inputData));
+    }
+
+    public static SatisfactionUpperBound of(CompactInputData input) {
+        int numberOfSeatsInRow = input.getNumberOfSeatsInRow();
+        int[] groupSizes = input.getGroupSizes();
+        int[] windowCounts = input.getWindowCounts();
+        int passengers = 0;
+        //window-preferring passengers that can get a window seat, at most two per group, and the ones that can't
+        int windowPreferringPassengers = 0;
+        int passengersWithoutWindowSeat = 0;
+        boolean[] groupSizeExists = new boolean[numberOfSeatsInRow+1];
+        for (int group=0; group<groupSizes.length; group++) {
+            if (groupSizes[group] <= numberOfSeatsInRow) {
+                passengers += groupSizes[group];
+                windowPreferringPassengers += Math.min(windowCounts[group], 2);
+                passengersWithoutWindowSeat += Math.max(0, windowCounts[group] - 2);
+                groupSizeExists[groupSizes[group]] = true;
+            }
+        }
+        int windowBound = passengers - passengersWithoutWindowSeat
+                - Math.max(0, windowPreferringPassengers - 2*input.getNumberOfRows());
+
+        //seats of a row that can be filled with groups of existing sizes (any number of groups of every size)
+        boolean[] reachable = new boolean[numberOfSeatsInRow+1];
+        reachable[0] = true;
+        int fillableSeats = 0;
+        for (int seats=1; seats<=numberOfSeatsInRow; seats++) {
+            for (int size=1; size<=seats && !reachable[seats]; size++) {
+                reachable[seats] = groupSizeExists[size] && reachable[seats-size];
+            }
+            if (reachable[seats]) {
+                fillableSeats = seats;
+            }
+        }
+        int capacityBound = input.getNumberOfRows() * fillableSeats;
+
+        return new SatisfactionUpperBound(Math.min(windowBound, capacityBound));
+    }
+
+    public int getSatisfiedPassengers() {
+        return satisfiedPassengers;
+    }
+
+    /**
+     * How many more satisfied passengers an arrangement could possibly have - zero means that it's optimal.
+     */
+    public int getGap(SeatsArrangement arrangement) {
+        return satisfiedPassengers - arrangement.getNumberOfSatisfiedPassengers();
+    }
+
+    public boolean isReachedBy(SeatsArrangement arrangement) {
+        return getGap(arrangement) <= 0;
+    }
+
+}
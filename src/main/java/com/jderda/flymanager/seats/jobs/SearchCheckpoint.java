@@ -0,0 +1,123 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Saved position of {@link CheckAllPossibileSeatArrangementsJob} - the input it was searching (so that it's not
+ * resumed for another one), current prefix and state of the {@link Combination} cursor within it (or none, if
+ * the next prefix is to be started), and the best arrangement found so far.
+ */
+@Getter
+@Builder
+class SearchCheckpoint {
+
+    private static final int FILE_HEADER = 0x434B5054;
+    private static final int FILE_VERSION = 2;
+
+    private final int numberOfRows;
+    private final int numberOfSeatsInRow;
+    private final int[] groupSizes;
+    private final int[] windowCounts;
+    private final int shard;
+    private final int numberOfShards;
+    private final int prefixLength;
+    private final long prefixNumber;
+    private final int[][] combination;
+    private final int bestScore;
+    private final int[] bestArrangement;
+    private final long combinations;
+    private final long invalidCombinations;
+
+    /**
+     * Writes the checkpoint to a temporary file, which then replaces the given one - so that a crash while writing
+     * leaves the previous checkpoint in place.
+     */
+    void write(Path file) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(FILE_HEADER);
+            output.writeInt(FILE_VERSION);
+            output.writeInt(numberOfRows);
+            output.writeInt(numberOfSeatsInRow);
+            writeArray(output, groupSizes);
+            writeArray(output, windowCounts);
+            output.writeInt(shard);
+            output.writeInt(numberOfShards);
+            output.writeInt(prefixLength);
+            output.writeLong(prefixNumber);
+            output.writeBoolean(combination != null);
+            if (combination != null) {
+                output.writeInt(combination.length);
+                for (int[] part : combination) {
+                    writeArray(output, part);
+                }
+            }
+            output.writeInt(bestScore);
+            output.writeBoolean(bestArrangement != null);
+            if (bestArrangement != null) {
+                writeArray(output, bestArrangement);
+            }
+            output.writeLong(combinations);
+            output.writeLong(invalidCombinations);
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static SearchCheckpoint read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != FILE_HEADER || input.readInt() != FILE_VERSION) {
+                throw new IOException("Not a search checkpoint file: " + file);
+            }
+            SearchCheckpointBuilder checkpoint = builder()
+                    .numberOfRows(input.readInt())
+                    .numberOfSeatsInRow(input.readInt())
+                    .groupSizes(readArray(input))
+                    .windowCounts(readArray(input))
+                    .shard(input.readInt())
+                    .numberOfShards(input.readInt())
+                    .prefixLength(input.readInt())
+                    .prefixNumber(input.readLong());
+            if (input.readBoolean()) {
+                int[][] combination = new int[input.readInt()][];
+                for (int part=0; part<combination.length; part++) {
+                    combination[part] = readArray(input);
+                }
+                checkpoint.combination(combination);
+            }
+            checkpoint.bestScore(input.readInt());
+            if (input.readBoolean()) {
+                checkpoint.bestArrangement(readArray(input));
+            }
+            return checkpoint
+                    .combinations(input.readLong())
+                    .invalidCombinations(input.readLong())
+                    .build();
+        }
+    }
+
+    private static void writeArray(DataOutputStream output, int[] values) throws IOException {
+        output.writeInt(values.length);
+        for (int value : values) {
+            output.writeInt(value);
+        }
+    }
+
+    private static int[] readArray(DataInputStream input) throws IOException {
+        int[] values = new int[input.readInt()];
+        for (int i=0; i<values.length; i++) {
+            values[i] = input.readInt();
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,429 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.jderda.flymanager.seats.domain.input.AbstractGroup;
+import com.jderda.flymanager.seats.domain.input.Group;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsRow;
+
+import lombok.Builder;
+
+/**
+ * Keeps an existing arrangement up to date when passengers cancel (or don't show up) and when passengers waiting for
+ * the flight are added, instead of solving the whole flight again - only rows that passengers leave or join are
+ * changed, so everyone else keeps their seat.
+ * <p>
+ * Removed passengers just free their seats (a group seated together stays together, only smaller). Added passengers
+ * are seated with their group - in the row where the group already sits if there's room, otherwise in the row
+ * {@link RowCapacityIndex} finds for it (like {@link OnlineSeatAssigner} does), or in any free seats if the group
+ * doesn't fit in a row anymore. Seats that are left free are then given, row by row, to the group that gains most
+ * satisfaction there - a waiting group first, or a group whose passengers are seated apart (they are moved together) -
+ * and the rest to waiting passengers, the way the simplified algorithm fills the plane.
+ * <p>
+ * Groups that are not seated together are indexed by size and number of window-preferring passengers, so a repair
+ * takes time proportional to the number of changed passengers and rows, not to the size of the plane (only creating
+ * the repairer does). Repairer is not thread-safe.
+ */
+public class SeatsArrangementRepairer {
+
+    private static final int WINDOW_SEATS = 2;
+
+    private final int numberOfSeatsInRow;
+    private final List<SeatsRow> rows;
+    private final RowCapacityIndex rowCapacityIndex;
+
+    private final Map<Integer, Passenger> passengers = new HashMap<>();
+    private final Map<Integer, GroupState> groupOfPassenger = new HashMap<>();
+    private final Set<Integer> cancelledPassengers = new HashSet<>();
+    private final Map<Integer, Integer> rowOfPassenger = new HashMap<>();
+    private final Map<Integer, AbstractGroup> seatedGroupOfPassenger = new HashMap<>();
+
+    //groups not seated together by kind (size and window-preferring passengers) - with nobody onboard or seated apart
+    private final List<Deque<GroupState>> waitingGroups = new ArrayList<>();
+    private final List<Deque<GroupState>> splitGroups = new ArrayList<>();
+    private final Deque<Passenger> waitingPassengers = new ArrayDeque<>();
+
+    //passengers of the rows changed by current repair as they were seated before it, and rows with seats to fill
+    private final Map<Integer, List<Passenger>> rowsBeforeRepair = new HashMap<>();
+    private final Set<Integer> rowsToFill = new LinkedHashSet<>();
+
+    @Builder
+    public SeatsArrangementRepairer(InputData inputData, SeatsArrangement seatsArrangement) {
+        if (seatsArrangement.getRows().size() != inputData.getNumberOfRows()) {
+            throw new IllegalArgumentException(String.format("Arrangement has %d rows, but the plane has %d",
+                    seatsArrangement.getRows().size(), inputData.getNumberOfRows()));
+        }
+        this.numberOfSeatsInRow = inputData.getNumberOfSeatsInRow();
+        this.rowCapacityIndex = new RowCapacityIndex(inputData.getNumberOfRows(), numberOfSeatsInRow);
+        for (int kind=0; kind<(numberOfSeatsInRow+1)*(numberOfSeatsInRow+1); kind++) {
+            waitingGroups.add(new ArrayDeque<>());
+            splitGroups.add(new ArrayDeque<>());
+        }
+        for (Group group : inputData.getGroups()) {
+            GroupState state = new GroupState(group.getPassengers());
+            for (Passenger passenger : group.getPassengers()) {
+                if (passengers.put(passenger.getId(), passenger) != null) {
+                    throw new IllegalArgumentException("Passenger " + passenger.getId() + " is in more than one group");
+                }
+                groupOfPassenger.put(passenger.getId(), state);
+            }
+        }
+
+        this.rows = new ArrayList<>();
+        for (int row=0; row<inputData.getNumberOfRows(); row++) {
+            rows.add(new SeatsRow(numberOfSeatsInRow));
+        }
+        for (int row=0; row<rows.size(); row++) {
+            for (AbstractGroup seatedGroup : seatsArrangement.getRows().get(row).getGroups()) {
+                copySeatedGroup(seatedGroup, row);
+            }
+        }
+        for (Group group : inputData.getGroups()) {
+            for (Passenger passenger : group.getPassengers()) {
+                if (!rowOfPassenger.containsKey(passenger.getId())) {
+                    waitingPassengers.addLast(passenger);
+                }
+            }
+            if (!group.getPassengers().isEmpty()) {
+                enqueue(groupOfPassenger.get(group.getPassengers().get(0).getId()));
+            }
+        }
+        rowsBeforeRepair.clear();
+        rowsToFill.clear();
+    }
+
+    /**
+     * Seats passengers of the given group with passengers of the input data, so that every seated group has
+     * passengers of one input group only.
+     */
+    private void copySeatedGroup(AbstractGroup seatedGroup, int row) {
+        Map<GroupState, List<Passenger>> parts = new LinkedHashMap<>();
+        for (Passenger seatedPassenger : seatedGroup.getPassengers()) {
+            Passenger passenger = getPassenger(seatedPassenger.getId());
+            if (rowOfPassenger.containsKey(passenger.getId())) {
+                throw new IllegalArgumentException("Passenger " + passenger.getId() + " is seated more than once");
+            }
+            parts.computeIfAbsent(groupOfPassenger.get(passenger.getId()), state -> new ArrayList<>()).add(passenger);
+        }
+        for (List<Passenger> part : parts.values()) {
+            if (rowCapacityIndex.getFreeSeats(row) < part.size()) {
+                throw new IllegalArgumentException("Row " + (row+1) + " has more passengers than seats");
+            }
+            seat((seatedGroup instanceof Passenger) ? part.get(0) : new Group(part), row);
+        }
+    }
+
+    /**
+     * Removes passengers who cancelled or didn't show up, and seats added ones (passengers of the input data, who
+     * weren't seated so far or were removed before) - then fills the seats that are left free.
+     */
+    public RepairReport repair(Collection<Integer> removedPassengerIds, Collection<Integer> addedPassengerIds) {
+        //all passengers are checked first, so that the arrangement is not changed when the repair is not possible
+        for (Integer id : removedPassengerIds) {
+            getPassenger(id);
+        }
+        for (Integer id : addedPassengerIds) {
+            getPassenger(id);
+        }
+        rowsBeforeRepair.clear();
+        rowsToFill.clear();
+
+        for (Integer id : removedPassengerIds) {
+            if (cancelledPassengers.add(id)) {
+                GroupState state = groupOfPassenger.get(id);
+                unseat(passengers.get(id));
+                state.update(cancelledPassengers);
+                enqueue(state);
+            }
+        }
+        Set<GroupState> addedGroups = new LinkedHashSet<>();
+        for (Integer id : addedPassengerIds) {
+            GroupState state = groupOfPassenger.get(id);
+            if (cancelledPassengers.remove(id)) {
+                state.update(cancelledPassengers);
+                waitingPassengers.addFirst(passengers.get(id));
+            }
+            if (!rowOfPassenger.containsKey(id)) {
+                addedGroups.add(state);
+            }
+        }
+        for (GroupState state : addedGroups) {
+            seatAddedGroup(state);
+        }
+        while (!rowsToFill.isEmpty()) {
+            Iterator<Integer> iterator = rowsToFill.iterator();
+            int row = iterator.next();
+            iterator.remove();
+            fillRow(row);
+        }
+        return createReport();
+    }
+
+    /**
+     * Current arrangement - it's changed by later repairs, so it has to be printed (or copied) before the next one.
+     */
+    public SeatsArrangement getSeatsArrangement() {
+        return SeatsArrangement.builder().rows(rows).build();
+    }
+
+    private void seatAddedGroup(GroupState state) {
+        if (isTogether(state)) {
+            return;
+        }
+        //the group stays in the row where most of its passengers are, if all of them fit there
+        Map<Integer, Integer> previousRows = new HashMap<>();
+        int previousRow = BranchAndBoundSearch.UNASSIGNED;
+        int passengersInPreviousRow = 0;
+        for (Passenger passenger : state.passengers) {
+            Integer row = rowOfPassenger.get(passenger.getId());
+            if (row != null) {
+                previousRows.put(passenger.getId(), row);
+                int passengersInRow = (int) previousRows.values().stream().filter(row::equals).count();
+                if (passengersInRow > passengersInPreviousRow) {
+                    previousRow = row;
+                    passengersInPreviousRow = passengersInRow;
+                }
+            }
+        }
+        for (Passenger passenger : state.passengers) {
+            unseat(passenger);
+        }
+        int size = state.passengers.size();
+        int row = (previousRow != BranchAndBoundSearch.UNASSIGNED && rowCapacityIndex.getFreeSeats(previousRow) >= size)
+                ? previousRow
+                : rowCapacityIndex.findRow(size, state.windows);
+        if (row != BranchAndBoundSearch.UNASSIGNED) {
+            seat(new Group(new ArrayList<>(state.passengers)), row);
+            return;
+        }
+        //passengers who were seated before get their seats back, others take any free seat
+        for (Passenger passenger : state.passengers) {
+            Integer seatRow = previousRows.get(passenger.getId());
+            if (seatRow == null || rowCapacityIndex.getFreeSeats(seatRow) == 0) {
+                seatRow = rowCapacityIndex.findRow(1, passenger.hasWindowSeatPreference() ? 1 : 0);
+            }
+            if (seatRow != BranchAndBoundSearch.UNASSIGNED) {
+                seat(passenger, seatRow);
+            } else {
+                waitingPassengers.addFirst(passenger);
+            }
+        }
+        enqueue(state);
+    }
+
+    private void fillRow(int row) {
+        while (rowCapacityIndex.getFreeSeats(row) > 0) {
+            GroupState state = findBestGroup(row);
+            if (state != null) {
+                for (Passenger passenger : state.passengers) {
+                    unseat(passenger);
+                }
+                seat(new Group(new ArrayList<>(state.passengers)), row);
+                continue;
+            }
+            Passenger passenger = nextWaitingPassenger();
+            if (passenger == null) {
+                return;
+            }
+            seat(passenger, row);
+            enqueue(groupOfPassenger.get(passenger.getId()));
+        }
+    }
+
+    /**
+     * Group that gains most satisfaction in the row - larger one if more gain the same, and a waiting one rather than
+     * one with passengers seated apart, so that nobody has to move.
+     */
+    private GroupState findBestGroup(int row) {
+        int windowsInRow = rowCapacityIndex.getWindowPreferringPassengers(row);
+        GroupState bestGroup = null;
+        int bestGain = 0;
+        for (int size=Math.min(rowCapacityIndex.getFreeSeats(row), numberOfSeatsInRow); size>0; size--) {
+            for (int windows=0; windows<=size; windows++) {
+                int gain = size - (Math.max(0, windowsInRow+windows-WINDOW_SEATS)
+                        - Math.max(0, windowsInRow-WINDOW_SEATS));
+                if (gain <= bestGain) {
+                    continue;
+                }
+                GroupState state = peek(waitingGroups, size, windows, true);
+                if (state == null) {
+                    state = peek(splitGroups, size, windows, false);
+                }
+                if (state != null) {
+                    bestGroup = state;
+                    bestGain = gain;
+                }
+            }
+        }
+        return bestGroup;
+    }
+
+    /**
+     * First group of the kind that is still waiting (or still split) - groups are added to the index whenever they
+     * change, and entries that are out of date are dropped only here.
+     */
+    private GroupState peek(List<Deque<GroupState>> index, int size, int windows, boolean waiting) {
+        Deque<GroupState> groups = index.get(getKind(size, windows));
+        while (!groups.isEmpty()) {
+            GroupState state = groups.peekFirst();
+            if (state.passengers.size() == size && state.windows == windows
+                    && (state.onboard == 0) == waiting && !isTogether(state)) {
+                return state;
+            }
+            groups.pollFirst();
+        }
+        return null;
+    }
+
+    private Passenger nextWaitingPassenger() {
+        while (!waitingPassengers.isEmpty()) {
+            Passenger passenger = waitingPassengers.pollFirst();
+            if (!rowOfPassenger.containsKey(passenger.getId()) && !cancelledPassengers.contains(passenger.getId())) {
+                return passenger;
+            }
+        }
+        return null;
+    }
+
+    private void enqueue(GroupState state) {
+        int size = state.passengers.size();
+        if (size == 0 || size > numberOfSeatsInRow || isTogether(state)) {
+            return;
+        }
+        (state.onboard == 0 ? waitingGroups : splitGroups).get(getKind(size, state.windows)).addLast(state);
+    }
+
+    private int getKind(int size, int windows) {
+        return size*(numberOfSeatsInRow+1) + windows;
+    }
+
+    private boolean isTogether(GroupState state) {
+        int size = state.passengers.size();
+        if (size == 0 || state.onboard < size) {
+            return false;
+        }
+        AbstractGroup seatedGroup = seatedGroupOfPassenger.get(state.passengers.get(0).getId());
+        return !(seatedGroup instanceof Passenger) && seatedGroup.getOccupiedSeats() == size;
+    }
+
+    private void seat(AbstractGroup seatedGroup, int row) {
+        keepRowBeforeRepair(row);
+        rows.get(row).add(seatedGroup);
+        rowCapacityIndex.add(row, seatedGroup.getOccupiedSeats(), countWindows(seatedGroup.getPassengers()));
+        for (Passenger passenger : seatedGroup.getPassengers()) {
+            rowOfPassenger.put(passenger.getId(), row);
+            seatedGroupOfPassenger.put(passenger.getId(), seatedGroup);
+            groupOfPassenger.get(passenger.getId()).onboard++;
+        }
+    }
+
+    private void unseat(Passenger passenger) {
+        Integer row = rowOfPassenger.remove(passenger.getId());
+        if (row == null) {
+            return;
+        }
+        keepRowBeforeRepair(row);
+        AbstractGroup seatedGroup = seatedGroupOfPassenger.remove(passenger.getId());
+        List<Passenger> remainingPassengers = seatedGroup.getPassengers().stream()
+                .filter(seatedPassenger -> !seatedPassenger.getId().equals(passenger.getId()))
+                .collect(Collectors.toList());
+        if (remainingPassengers.isEmpty()) {
+            rows.get(row).remove(seatedGroup);
+        } else {
+            Group replacement = new Group(remainingPassengers);
+            rows.get(row).replace(seatedGroup, replacement);
+            for (Passenger remainingPassenger : remainingPassengers) {
+                seatedGroupOfPassenger.put(remainingPassenger.getId(), replacement);
+            }
+        }
+        rowCapacityIndex.remove(row, 1, passenger.hasWindowSeatPreference() ? 1 : 0);
+        groupOfPassenger.get(passenger.getId()).onboard--;
+        rowsToFill.add(row);
+    }
+
+    private void keepRowBeforeRepair(int row) {
+        if (!rowsBeforeRepair.containsKey(row)) {
+            rowsBeforeRepair.put(row, rows.get(row).getPassengers());
+        }
+    }
+
+    private RepairReport createReport() {
+        Map<Integer, Integer> seatsBefore = new HashMap<>();
+        for (Map.Entry<Integer, List<Passenger>> row : rowsBeforeRepair.entrySet()) {
+            for (int seat=0; seat<row.getValue().size(); seat++) {
+                seatsBefore.put(row.getValue().get(seat).getId(), row.getKey()*numberOfSeatsInRow + seat);
+            }
+        }
+        int movedPassengers = 0;
+        int boardedPassengers = 0;
+        for (int row : rowsBeforeRepair.keySet()) {
+            List<Passenger> seatedPassengers = rows.get(row).getPassengers();
+            for (int seat=0; seat<seatedPassengers.size(); seat++) {
+                Integer seatBefore = seatsBefore.remove(seatedPassengers.get(seat).getId());
+                if (seatBefore == null) {
+                    boardedPassengers++;
+                } else if (seatBefore != row*numberOfSeatsInRow + seat) {
+                    movedPassengers++;
+                }
+            }
+        }
+        return RepairReport.builder()
+                .repairedRows(rowsBeforeRepair.size())
+                .movedPassengers(movedPassengers)
+                .boardedPassengers(boardedPassengers)
+                .deboardedPassengers(seatsBefore.size())
+                .build();
+    }
+
+    private Passenger getPassenger(Integer id) {
+        Passenger passenger = passengers.get(id);
+        if (passenger == null) {
+            throw new IllegalArgumentException("Passenger " + id + " is not in the input data");
+        }
+        return passenger;
+    }
+
+    private static int countWindows(List<Passenger> passengers) {
+        return (int) passengers.stream().filter(Passenger::hasWindowSeatPreference).count();
+    }
+
+    /**
+     * Passengers of an input group who didn't cancel, and how many of them are onboard.
+     */
+    private static class GroupState {
+
+        private final List<Passenger> allPassengers;
+        private List<Passenger> passengers;
+        private int windows;
+        private int onboard;
+
+        GroupState(List<Passenger> passengers) {
+            this.allPassengers = passengers;
+            this.passengers = passengers;
+            this.windows = countWindows(passengers);
+        }
+
+        void update(Set<Integer> cancelledPassengers) {
+            passengers = allPassengers.stream()
+                    .filter(passenger -> !cancelledPassengers.contains(passenger.getId()))
+                    .collect(Collectors.toList());
+            windows = countWindows(passengers);
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+import lombok.Data;
+
+/**
+ * Best combination found by one shard of the exhaustive search (see
+ * {@link CheckAllPossibileSeatArrangementsJob#searchShard(int, int)}). It's written to a small text file:
+ * <pre>
+ * shard 2/4
+ * score 17
+ * arrangement -1 0 0 1
+ * </pre>
+ * where arrangement lists the row of every group (-1 for unassigned ones). Shard that had no valid combination
+ * to check has a score of -1 and an empty arrangement.
+ */
+@Data
+public class ShardResult {
+
+    private static final String SHARD = "shard";
+    private static final String SCORE = "score";
+    private static final String ARRANGEMENT = "arrangement";
+
+    private final int shard;
+    private final int numberOfShards;
+    private final int score;
+    private final int[] arrangement;
+
+    /**
+     * Picks the best result of all shards - the one with highest score, and the first one in lexicographic order
+     * if there are more of those, just like the search of all combinations at once. All shards have to be there.
+     */
+    public static ShardResult merge(List<ShardResult> results) {
+        if (results.isEmpty()) {
+            throw new IllegalArgumentException("No shard results to merge");
+        }
+        int numberOfShards = results.get(0).getNumberOfShards();
+        boolean[] present = new boolean[numberOfShards];
+        ShardResult best = null;
+        for (ShardResult result : results) {
+            if (result.getNumberOfShards() != numberOfShards) {
+                throw new IllegalArgumentException("Shard results come from different splits: "
+                        + numberOfShards + " and " + result.getNumberOfShards() + " shards");
+            }
+            if (present[result.getShard()-1]) {
+                throw new IllegalArgumentException("Duplicate result of shard " + result.getShard());
+            }
+            present[result.getShard()-1] = true;
+            if (best == null || result.getScore() > best.getScore()
+                    || (result.getScore() == best.getScore() && result.isBefore(best))) {
+                best = result;
+            }
+        }
+        for (int shard=1; shard<=numberOfShards; shard++) {
+            if (!present[shard-1]) {
+                throw new IllegalArgumentException("Missing result of shard " + shard + "/" + numberOfShards);
+            }
+        }
+        return best;
+    }
+
+    private boolean isBefore(ShardResult other) {
+        for (int i=0; i<Math.min(arrangement.length, other.arrangement.length); i++) {
+            if (arrangement[i] != other.arrangement[i]) {
+                return arrangement[i] < other.arrangement[i];
+            }
+        }
+        return arrangement.length < other.arrangement.length;
+    }
+
+    public SeatsArrangement toSeatsArrangement(InputData inputData) {
+        CompactInputData data = CompactInputData.of(inputData);
+        if (score == Combination.INVALID_CASE_SCORE || arrangement.length != data.getNumberOfGroups()) {
+            throw new IllegalArgumentException("Shard result does not match input data");
+        }
+        return Combination.getSeatsArrangement(data, arrangement);
+    }
+
+    /**
+     * Writes the result to a temporary file first and moves it in place, so that whoever waits for the file
+     * never sees a partially written one.
+     */
+    public void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write(SHARD + " " + shard + "/" + numberOfShards + "\n");
+            writer.write(SCORE + " " + score + "\n");
+            writer.write(ARRANGEMENT + Arrays.stream(arrangement).mapToObj(row -> " " + row).collect(Collectors.joining()));
+            writer.write("\n");
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ShardResult read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        try {
+            String[] shard = getValue(lines, 0, SHARD).split("/");
+            int score = Integer.parseInt(getValue(lines, 1, SCORE));
+            String arrangement = getValue(lines, 2, ARRANGEMENT);
+            ShardResult result = new ShardResult(Integer.parseInt(shard[0]), Integer.parseInt(shard[1]), score,
+                    arrangement.isEmpty()
+                            ? new int[0]
+                            : Arrays.stream(arrangement.split(" ")).mapToInt(Integer::parseInt).toArray());
+            if (shard.length != 2 || result.getShard() < 1 || result.getShard() > result.getNumberOfShards()) {
+                throw new IllegalArgumentException("invalid shard");
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid shard result file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String getValue(List<String> lines, int index, String key) {
+        String line = lines.get(index);
+        if (!line.equals(key) && !line.startsWith(key + " ")) {
+            throw new IllegalArgumentException("expected " + key + " in line " + (index+1));
+        }
+        return line.substring(key.length()).trim();
+    }
+
+}
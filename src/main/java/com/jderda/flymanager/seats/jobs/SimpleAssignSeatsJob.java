@@ -1,15 +1,12 @@
 package com.jderda.flymanager.seats.jobs;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.Callable;
 
-import com.jderda.flymanager.seats.domain.input.AbstractGroup;
-import com.jderda.flymanager.seats.domain.input.Group;
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
 import com.jderda.flymanager.seats.domain.input.InputData;
-import com.jderda.flymanager.seats.domain.input.Passenger;
 import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
 import com.jderda.flymanager.seats.domain.output.SeatsRow;
 
@@ -20,98 +17,100 @@ import lombok.NonNull;
  * This is the simplest, naive implementation of seat assignment - similar to scheduling problem. 
  * In this case we're sorting the input groups by the number of passengers (descending) and try to fit 
  * them in any space that is left, if possible.
- *
+ * 
+ * Assignment is done on {@link CompactInputData}, with the row for each group found by {@link RowCapacityIndex},
+ * output rows are created only when all groups are assigned.
  */
 public class SimpleAssignSeatsJob implements Callable<SeatsArrangement> {
     
     @NonNull
-    private final InputData inputData;
+    private final CompactInputData inputData;
     
-    List<SeatsRow> rows;
-    List<Passenger> passengersNotFitting;
+    RowCapacityIndex rowCapacityIndex;
+    int[] groupsOrder;
+    int[] rowOfGroup;
 
     @Override
     public SeatsArrangement call() throws Exception {
         assignGroupsToRows();
         
-        assignRemainingPassengers();
+        List<SeatsRow> rows = createRows();
+        
+        assignRemainingPassengers(rows);
         
         return SeatsArrangement.builder().rows(rows).build();
     }
 
     
-    private void assignRemainingPassengers() {
-        //as those passengers won't be satisfied anyway, the order or seat placement doesn't matter
-        passengersNotFitting.forEach(this::tryAssignPassengerToAnyRow);
-        
-    }
-    
-    private void assignGroupsToRows() {
-        List<Group> groups = inputData.getGroups();
-        groups.sort(new Comparator<Group>() {
-
-            @Override
-            public int compare(Group group1, Group group2) {
-                Double firstScore = getGroupScore(group1);
-                Double secondScore = getGroupScore(group2);
-                return -firstScore.compareTo(secondScore);
-            }
-
-            private Double getGroupScore(Group group) {
-                Double score = group.getMaximumSatisfaction().doubleValue();
-                Long numberOfWindowPreferences = group.getPassengers().stream()
-                    .filter(passenger -> passenger.hasWindowSeatPreference())
-                    .count();
-                return score - 0.25 * numberOfWindowPreferences;
-            }
-        });
-        groups.forEach(this::tryAssignGroupToAnyRow);
-    }
-
-    private void tryAssignPassengerToAnyRow(Passenger passenger) {
-        for (SeatsRow row : rows) {
-            if (!row.isFull()) {
-                row.add(passenger);
-                return;
+    private void assignRemainingPassengers(List<SeatsRow> rows) {
+        //as those passengers won't be satisfied anyway, the order or seat placement doesn't matter - rows are
+        //filled one after another
+        int[] offsets = inputData.getGroupOffsets();
+        int nextRow = 0;
+        for (int group : groupsOrder) {
+            if (rowOfGroup[group] == BranchAndBoundSearch.UNASSIGNED) {
+                for (int passenger=offsets[group]; passenger<offsets[group+1]; passenger++) {
+                    while (nextRow < rows.size() && rows.get(nextRow).isFull()) {
+                        nextRow++;
+                    }
+                    if (nextRow == rows.size()) {
+                        return;
+                    }
+                    rows.get(nextRow).add(inputData.toPassenger(passenger));
+                }
             }
         }
     }
     
-    private void tryAssignGroupToAnyRow(AbstractGroup group) {
-        Optional<SeatsRow> maximalSatisfactionRow = Optional.empty();
-        Optional<Integer> maximalSatisfaction = Optional.empty();
-        for (SeatsRow row : rows) {
-            Optional<Integer> potentialSatisfaction = row.getPotentialGroupSatisfaction(group);
-            if (potentialSatisfaction.isPresent()) { 
-                 if (!maximalSatisfactionRow.isPresent()
-                         || potentialSatisfaction.get() > maximalSatisfaction.get()) {
-                     maximalSatisfaction = potentialSatisfaction;
-                     maximalSatisfactionRow = Optional.of(row);
-                 }
-            }
+    private void assignGroupsToRows() {
+        //sorting by score descending (score is the group size minus 0.25 for each window preference, multiplied by 4
+        //to stay in integers), keeping the original order of groups with equal score
+        int[] sizes = inputData.getGroupSizes();
+        int[] windows = inputData.getWindowCounts();
+        long[] sortKeys = new long[sizes.length];
+        for (int i=0; i<sizes.length; i++) {
+            long score = 4L*sizes[i] - windows[i];
+            sortKeys[i] = ((Integer.MAX_VALUE - score) << 32) | i;
         }
-        
-        if (maximalSatisfactionRow.isPresent()) {
-            maximalSatisfactionRow.get().add(group);
-        } else {
-            passengersNotFitting.addAll(group.getPassengers());
+        Arrays.sort(sortKeys);
+        for (int i=0; i<sizes.length; i++) {
+            groupsOrder[i] = (int) sortKeys[i];
+        }
+        for (int group : groupsOrder) {
+            tryAssignGroupToAnyRow(group);
         }
     }
 
-    private List<SeatsRow> createEmpyRows() {
+    private void tryAssignGroupToAnyRow(int group) {
+        int size = inputData.getGroupSizes()[group];
+        int windows = inputData.getWindowCounts()[group];
+        int row = rowCapacityIndex.findRow(size, windows);
+        rowOfGroup[group] = row;
+        if (row != BranchAndBoundSearch.UNASSIGNED) {
+            rowCapacityIndex.add(row, size, windows);
+        }
+    }
+
+    private List<SeatsRow> createRows() {
         List<SeatsRow> rows = new ArrayList<>();
         for (int i=0; i<inputData.getNumberOfRows(); i++) {
             rows.add(new SeatsRow(inputData.getNumberOfSeatsInRow()));
         }
+        for (int group : groupsOrder) {
+            if (rowOfGroup[group] != BranchAndBoundSearch.UNASSIGNED) {
+                rows.get(rowOfGroup[group]).add(inputData.toGroup(group));
+            }
+        }
         return rows;
     }
 
     @Builder
-    public SimpleAssignSeatsJob(InputData inputData) {
+    public SimpleAssignSeatsJob(InputData inputData, CompactInputData compactInputData) {
         super();
-        this.inputData = inputData;
-        rows = createEmpyRows();
-        passengersNotFitting = new ArrayList<>();
+        this.inputData = (compactInputData != null) ? compactInputData : CompactInputData.of(inputData);
+        rowCapacityIndex = new RowCapacityIndex(this.inputData.getNumberOfRows(), this.inputData.getNumberOfSeatsInRow());
+        groupsOrder = new int[this.inputData.getNumberOfGroups()];
+        rowOfGroup = new int[this.inputData.getNumberOfGroups()];
     }
     
 }
@@ -0,0 +1,79 @@
+package com.jderda.flymanager.seats.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, with logarithmic buckets - every power of two is split into four
+ * buckets, so percentiles are accurate within 25%, and recording is a single atomic increment.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64*SUB_BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 1);
+        counts.incrementAndGet(bucket(value));
+        totalCount.increment();
+        totalNanos.add(value);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Upper bound of the bucket with given percentile of recorded latencies, in nanoseconds (0 if nothing is recorded).
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile/100*count));
+        long seen = 0;
+        for (int bucket=0; bucket<counts.length(); bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return getUpperBound(bucket);
+            }
+        }
+        return getUpperBound(counts.length()-1);
+    }
+
+    public void reset() {
+        for (int bucket=0; bucket<counts.length(); bucket++) {
+            counts.set(bucket, 0);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+    }
+
+    private static int bucket(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int subBucket = (int) (value >>> (magnitude-SUB_BUCKET_BITS)) & (SUB_BUCKETS-1);
+        return (magnitude-SUB_BUCKET_BITS+1)*SUB_BUCKETS + subBucket;
+    }
+
+    private static long getUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket/SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << (magnitude-SUB_BUCKET_BITS)) - 1;
+    }
+
+}
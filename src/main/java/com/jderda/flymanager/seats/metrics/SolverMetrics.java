@@ -0,0 +1,198 @@
+package com.jderda.flymanager.seats.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+
+/**
+ * Process-wide metrics of the solvers - latency histograms of parsing, solving and printing, search counters and
+ * satisfaction of the returned arrangements. Searches count candidates in their own fields and report the totals
+ * once, when they finish, so the hot loops pay only for a plain increment.
+ * <p>
+ * Candidates are the assignments (complete or partial) a search evaluated, invalid ones are those that overflow
+ * a row, and pruned branches are the subtrees skipped because they could not beat the best score.
+ */
+public class SolverMetrics implements SolverMetricsMBean {
+
+    public static final String OBJECT_NAME = "com.jderda.flymanager.seats:type=SolverMetrics";
+
+    private static final SolverMetrics INSTANCE = new SolverMetrics();
+
+    public enum Phase {
+        PARSE, SOLVE, PRINT
+    }
+
+    private final Map<Phase, LatencyHistogram> latencies = new EnumMap<>(Phase.class);
+    private final LongAdder flightsSolved = new LongAdder();
+    private final LongAdder candidatesExplored = new LongAdder();
+    private final LongAdder invalidCandidates = new LongAdder();
+    private final LongAdder prunedBranches = new LongAdder();
+    private final LongAdder satisfiedPassengers = new LongAdder();
+    private final LongAdder passengersOnboard = new LongAdder();
+    private boolean registered;
+
+    public SolverMetrics() {
+        for (Phase phase : Phase.values()) {
+            latencies.put(phase, new LatencyHistogram());
+        }
+    }
+
+    public static SolverMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers metrics in the platform MBean server (once, further calls do nothing).
+     */
+    public synchronized void register() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register solver metrics", e);
+        }
+    }
+
+    /**
+     * Returns job that records its solve latency and satisfaction of the arrangement it returns.
+     */
+    public Callable<SeatsArrangement> measure(Callable<SeatsArrangement> job) {
+        return () -> {
+            long start = System.nanoTime();
+            SeatsArrangement arrangement = job.call();
+            recordLatency(Phase.SOLVE, System.nanoTime()-start);
+            recordArrangement(arrangement);
+            return arrangement;
+        };
+    }
+
+    public void recordLatency(Phase phase, long nanos) {
+        latencies.get(phase).record(nanos);
+    }
+
+    public void recordSearch(long candidates, long invalid, long pruned) {
+        candidatesExplored.add(candidates);
+        invalidCandidates.add(invalid);
+        prunedBranches.add(pruned);
+    }
+
+    public void recordArrangement(SeatsArrangement arrangement) {
+        flightsSolved.increment();
+        satisfiedPassengers.add(arrangement.getNumberOfSatisfiedPassengers());
+        passengersOnboard.add(arrangement.getNumberOfPassengersOnboard());
+    }
+
+    public LatencyHistogram getLatencies(Phase phase) {
+        return latencies.get(phase);
+    }
+
+    @Override
+    public long getFlightsSolved() {
+        return flightsSolved.sum();
+    }
+
+    @Override
+    public double getParseLatencyP50Millis() {
+        return getPercentileMillis(Phase.PARSE, 50);
+    }
+
+    @Override
+    public double getParseLatencyP99Millis() {
+        return getPercentileMillis(Phase.PARSE, 99);
+    }
+
+    @Override
+    public double getSolveLatencyP50Millis() {
+        return getPercentileMillis(Phase.SOLVE, 50);
+    }
+
+    @Override
+    public double getSolveLatencyP99Millis() {
+        return getPercentileMillis(Phase.SOLVE, 99);
+    }
+
+    @Override
+    public double getPrintLatencyP50Millis() {
+        return getPercentileMillis(Phase.PRINT, 50);
+    }
+
+    @Override
+    public double getPrintLatencyP99Millis() {
+        return getPercentileMillis(Phase.PRINT, 99);
+    }
+
+    @Override
+    public long getCandidatesExplored() {
+        return candidatesExplored.sum();
+    }
+
+    /**
+     * Candidates explored per second of solve time (of all solvers together).
+     */
+    @Override
+    public double getCandidatesPerSecond() {
+        long solveNanos = latencies.get(Phase.SOLVE).getTotalNanos();
+        return (solveNanos == 0) ? 0 : getCandidatesExplored() / (solveNanos/1e9);
+    }
+
+    @Override
+    public long getInvalidCandidates() {
+        return invalidCandidates.sum();
+    }
+
+    @Override
+    public long getPrunedBranches() {
+        return prunedBranches.sum();
+    }
+
+    @Override
+    public double getPercentageOfSatisfiedPassengers() {
+        long onboard = passengersOnboard.sum();
+        return (onboard == 0) ? 0 : 100.0*satisfiedPassengers.sum()/onboard;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : latencies.values()) {
+            histogram.reset();
+        }
+        flightsSolved.reset();
+        candidatesExplored.reset();
+        invalidCandidates.reset();
+        prunedBranches.reset();
+        satisfiedPassengers.reset();
+        passengersOnboard.reset();
+    }
+
+    public void print(Writer writer) throws IOException {
+        writer.append(String.format("Flights solved: %d, satisfied passengers: %.1f%%\n", 
+                getFlightsSolved(), getPercentageOfSatisfiedPassengers()));
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = latencies.get(phase);
+            writer.append(String.format("%s: %d calls, p50 %.3f ms, p99 %.3f ms, total %.3f ms\n", 
+                    phase.name().toLowerCase(), histogram.getCount(), getPercentileMillis(phase, 50), 
+                    getPercentileMillis(phase, 99), histogram.getTotalNanos()/1e6));
+        }
+        writer.append(String.format("Candidates: %d explored (%.0f/s), %d invalid, %d branches pruned\n", 
+                getCandidatesExplored(), getCandidatesPerSecond(), getInvalidCandidates(), getPrunedBranches()));
+    }
+
+    private double getPercentileMillis(Phase phase, double percentile) {
+        return latencies.get(phase).getPercentile(percentile) / 1e6;
+    }
+
+}
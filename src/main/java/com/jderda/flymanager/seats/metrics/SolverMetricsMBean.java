@@ -0,0 +1,34 @@
+package com.jderda.flymanager.seats.metrics;
+
+/**
+ * Attributes of {@link SolverMetrics} exposed through JMX. Latencies are in milliseconds.
+ */
+public interface SolverMetricsMBean {
+
+    long getFlightsSolved();
+
+    double getParseLatencyP50Millis();
+
+    double getParseLatencyP99Millis();
+
+    double getSolveLatencyP50Millis();
+
+    double getSolveLatencyP99Millis();
+
+    double getPrintLatencyP50Millis();
+
+    double getPrintLatencyP99Millis();
+
+    long getCandidatesExplored();
+
+    double getCandidatesPerSecond();
+
+    long getInvalidCandidates();
+
+    long getPrunedBranches();
+
+    double getPercentageOfSatisfiedPassengers();
+
+    void reset();
+
+}
@@ -0,0 +1,202 @@
+package com.jderda.flymanager.seats.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.InputDataParser;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+import com.jderda.flymanager.seats.metrics.SolverMetrics.Phase;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.Builder;
+
+/**
+ * Long-running HTTP server, so that the JVM (and JIT-compiled solvers) is reused between requests. Endpoints:
+ * <ul>
+ * <li>POST /solve - input data in the body (same format as the input file), arrangement printed in the response; 
+ * algorithm can be chosen with a query parameter, like /solve?algorithm=bnb</li>
+ * <li>GET /health - returns OK while the server is running</li>
+ * </ul>
+ * At most given number of jobs is run at once, with a bounded number of requests waiting for a free worker - 
+ * anything above that is rejected with 503. Jobs that exceed the timeout are cancelled and answered with 504.
+ * Request bodies larger than the limit are not read into memory at all, they're rejected with 413.
+ * Algorithms that run until a time limit (anytime, portfolio) use the one given when the server is built.
+ */
+public class SeatsArrangementServer {
+
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int PAYLOAD_TOO_LARGE = 413;
+    private static final int INTERNAL_ERROR = 500;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final int GATEWAY_TIMEOUT = 504;
+
+    public static final int DEFAULT_MAX_REQUEST_SIZE = 16 * 1024 * 1024;
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor solvers;
+    private final ExecutorService handlers;
+    private final Algorithm defaultAlgorithm;
+    private final Duration timeLimit;
+    private final long timeoutMillis;
+    private final int maxRequestSize;
+
+    @Builder
+    public SeatsArrangementServer(int port, int threads, int queueSize, long timeoutMillis, Algorithm defaultAlgorithm,
+            Duration timeLimit, Integer maxRequestSize) throws IOException {
+        this.defaultAlgorithm = (defaultAlgorithm != null) ? defaultAlgorithm : Algorithm.SIMPLE;
+        this.timeLimit = timeLimit;
+        this.timeoutMillis = timeoutMillis;
+        this.maxRequestSize = (maxRequestSize != null) ? maxRequestSize : DEFAULT_MAX_REQUEST_SIZE;
+        this.solvers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, 
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), new ThreadPoolExecutor.AbortPolicy());
+        //handlers mostly wait for solvers - there are more of them than solvers accept, so overload is answered with 503
+        //quickly, while connections above that wait to be accepted
+        this.handlers = Executors.newFixedThreadPool(2 * (threads + Math.max(1, queueSize)));
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.setExecutor(handlers);
+        this.server.createContext("/solve", this::handleSolve);
+        this.server.createContext("/health", this::handleHealth);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        handlers.shutdownNow();
+        solvers.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        respond(exchange, OK, "OK\n");
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, METHOD_NOT_ALLOWED, "Use POST with input data in the request body\n");
+            return;
+        }
+        Optional<Algorithm> algorithm = getAlgorithm(exchange.getRequestURI().getQuery());
+        if (!algorithm.isPresent()) {
+            respond(exchange, BAD_REQUEST, "Unknown algorithm\n");
+            return;
+        }
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        InputData data;
+        try {
+            byte[] body = readBody(exchange);
+            if (body == null) {
+                respond(exchange, PAYLOAD_TOO_LARGE, "Request body is larger than " + maxRequestSize + " bytes\n");
+                return;
+            }
+            long start = System.nanoTime();
+            data = new InputDataParser(ByteBuffer.wrap(body)).readInputData();
+            metrics.recordLatency(Phase.PARSE, System.nanoTime()-start);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, BAD_REQUEST, e.getMessage() + "\n");
+            return;
+        }
+
+        Future<SeatsArrangement> result;
+        try {
+            result = solvers.submit(metrics.measure(algorithm.get().createJob(data, timeLimit)));
+        } catch (RejectedExecutionException e) {
+            respond(exchange, SERVICE_UNAVAILABLE, "Too many requests\n");
+            return;
+        }
+        try {
+            SeatsArrangement arrangement = result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            StringWriter writer = new StringWriter();
+            arrangement.print(writer);
+            metrics.recordLatency(Phase.PRINT, System.nanoTime()-start);
+            respond(exchange, OK, writer.toString());
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            respond(exchange, GATEWAY_TIMEOUT, "Timed out\n");
+        } catch (ExecutionException e) {
+            //solvers with their own time limit (like portfolio) fail when nothing was found within it
+            boolean timedOut = e.getCause() instanceof TimeoutException;
+            respond(exchange, timedOut ? GATEWAY_TIMEOUT : INTERNAL_ERROR, e.getCause() + "\n");
+        } catch (Exception e) {
+            result.cancel(true);
+            respond(exchange, INTERNAL_ERROR, e + "\n");
+        }
+    }
+
+    private Optional<Algorithm> getAlgorithm(String query) {
+        if (query == null) {
+            return Optional.of(defaultAlgorithm);
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("algorithm=")) {
+                return Algorithm.forFlag("-" + parameter.substring("algorithm=".length()));
+            }
+        }
+        return Optional.of(defaultAlgorithm);
+    }
+
+    /**
+     * Whole request body, or null if it's larger than the limit - declared length is checked first, and reading stops
+     * as soon as the limit is exceeded, so that a single request can't take all the memory.
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        try {
+            if (contentLength != null && Long.parseLong(contentLength.trim()) > maxRequestSize) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Content-Length: " + contentLength);
+        }
+        InputStream body = exchange.getRequestBody();
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = body.read(buffer)) > 0) {
+            if (result.size() + read > maxRequestSize) {
+                return null;
+            }
+            result.write(buffer, 0, read);
+        }
+        return result.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+}
@@ -1,9 +1,14 @@
 package com.jderda.flymanager.seats;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
@@ -19,8 +24,13 @@ import org.junit.runners.Parameterized.Parameters;
 import org.reflections.Reflections;
 import org.reflections.scanners.ResourcesScanner;
 
+import com.jderda.flymanager.seats.domain.input.Group;
 import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.Passenger;
 import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangementWriter;
+import com.jderda.flymanager.seats.domain.output.SeatsRow;
+import com.jderda.flymanager.seats.jobs.CheckAllPossibileSeatArrangementsJob;
 
 @RunWith(Parameterized.class)
 public abstract class AbstractInputScenariosRunner {
@@ -49,6 +59,70 @@ public abstract class AbstractInputScenariosRunner {
         writer.flush();
     }
 
+    @Test
+    public void testWriterOutputIsSameAsPrinted() throws Exception {
+        SeatsArrangement result = job.call();
+        StringWriter printed = new StringWriter();
+        result.print(printed);
+        //small buffer, so that it's drained in the middle of rows too
+        SeatsArrangementWriter arrangementWriter = new SeatsArrangementWriter(16);
+        for (int i=0; i<2; i++) {
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            arrangementWriter.write(result, Channels.newChannel(written));
+            Assert.assertEquals(printed.toString(), new String(written.toByteArray(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Exact algorithms have to satisfy as many passengers (and seat as many) as checking all possible arrangements.
+     */
+    protected void assertSameSatisfactionAsAllPermutations() throws Exception {
+        SeatsArrangement expected = CheckAllPossibileSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .build()
+                .call();
+        SeatsArrangement result = job.call();
+        Assert.assertEquals(expected.getNumberOfSatisfiedPassengers(), result.getNumberOfSatisfiedPassengers());
+        Assert.assertEquals(expected.getNumberOfPassengersOnboard(), result.getNumberOfPassengersOnboard());
+    }
+
+    /**
+     * Checks that no row has more passengers than seats, and that only passengers of given input data are seated, 
+     * each of them once.
+     */
+    protected static void assertValidArrangement(SeatsArrangement arrangement, InputData data) {
+        Set<Integer> passengers = data.getGroups().stream()
+                .flatMap(group -> group.getPassengers().stream())
+                .map(Passenger::getId)
+                .collect(Collectors.toSet());
+        Set<Integer> seatedPassengers = new HashSet<>();
+        for (SeatsRow row : arrangement.getRows()) {
+            Assert.assertTrue(row.getOccupiedSeats() <= data.getNumberOfSeatsInRow());
+            Assert.assertEquals(row.getOccupiedSeats().intValue(), row.getPassengers().size());
+            for (Passenger passenger : row.getPassengers()) {
+                Assert.assertTrue(passengers.contains(passenger.getId()));
+                Assert.assertTrue(seatedPassengers.add(passenger.getId()));
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #assertValidArrangement(SeatsArrangement, InputData)}, and all passengers are seated as well - or 
+     * all seats are taken, if there are more passengers.
+     */
+    protected static void assertFilledArrangement(SeatsArrangement arrangement, InputData data) {
+        assertValidArrangement(arrangement, data);
+        int passengers = data.getGroups().stream().mapToInt(Group::getOccupiedSeats).sum();
+        int seats = data.getNumberOfRows() * data.getNumberOfSeatsInRow();
+        Assert.assertEquals(Math.min(passengers, seats), arrangement.getNumberOfPassengersOnboard());
+    }
+
+    protected static String print(SeatsArrangement arrangement) throws IOException {
+        StringWriter writer = new StringWriter();
+        arrangement.print(writer);
+        return writer.toString();
+    }
+
     @Parameters(name = "{0}")
     public static Iterable<Object[]> data() {
         Set<String> testCasesLocations = new Reflections("testCases", new ResourcesScanner())
@@ -0,0 +1,97 @@
+package com.jderda.flymanager.seats;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.InputDataParser;
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+import com.jderda.flymanager.seats.domain.input.WaitlistAdmission;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.IdenticalRowsSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class AdmittedAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    private final String testData;
+
+    public AdmittedAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+        this.testData = testData;
+    }
+
+    @Override
+    public void init() {
+        job = SimpleAssignSeatsJob.builder()
+                .compactInputData(WaitlistAdmission.builder().build().admit(parser(testData)))
+                .build();
+    }
+
+    @Test
+    public void testWaitlistThatFitsInPoolIsAdmittedWhole() throws Exception {
+        WaitlistAdmission admission = WaitlistAdmission.builder().slack(Integer.MAX_VALUE).build();
+        CompactInputData admitted = admission.admit(parser(testData));
+        CompactInputData expected = CompactInputData.of(inputData);
+        Assert.assertArrayEquals(expected.getPassengerIds(), admitted.getPassengerIds());
+        Assert.assertArrayEquals(expected.getGroupSizes(), admitted.getGroupSizes());
+        Assert.assertArrayEquals(expected.getWindowCounts(), admitted.getWindowCounts());
+        Assert.assertEquals(admission.getGroupsRead(), admission.getGroupsAdmitted());
+    }
+
+    @Test
+    public void testPoolSizeDoesNotDependOnWaitlistLength() throws Exception {
+        int slack = 10;
+        //first groups of every kind (size and number of window preferences) that can fit, and fillers for the rest
+        int maximumPoolSize = 60 + slack + 6;
+        for (int size=1; size<=6; size++) {
+            maximumPoolSize += (size+1) * 10*(6/size)*size;
+        }
+        for (double oversubscription : new double[] {5, 50, 500}) {
+            String waitlist = ManifestGenerator.builder()
+                    .numberOfSeatsInRow(6)
+                    .numberOfRows(10)
+                    .oversubscription(oversubscription)
+                    .seed(1L)
+                    .build()
+                    .generate();
+            WaitlistAdmission admission = WaitlistAdmission.builder().slack(slack).build();
+            CompactInputData admitted = admission.admit(parser(waitlist));
+            Assert.assertTrue(admitted.getPassengerIds().length <= maximumPoolSize);
+
+            //admitted groups are given in the same order as on the waiting list
+            InputData all = InputData.of(new BufferedReader(new StringReader(waitlist)));
+            CompactInputData compactAll = CompactInputData.of(all);
+            int group = 0;
+            for (int i=0; i<admitted.getNumberOfGroups(); i++) {
+                int firstPassenger = admitted.getPassengerIds()[admitted.getGroupOffsets()[i]];
+                while (compactAll.getPassengerIds()[compactAll.getGroupOffsets()[group]] != firstPassenger) {
+                    group++;
+                }
+            }
+
+            //exact search is too deep for the whole waiting list, but on the pool it does at least as well as
+            //the simplified algorithm on everything
+            SeatsArrangement arrangement = IdenticalRowsSeatArrangementsJob.builder()
+                    .compactInputData(admitted)
+                    .build()
+                    .call();
+            SeatsArrangement simple = SimpleAssignSeatsJob.builder()
+                    .inputData(all)
+                    .build()
+                    .call();
+            Assert.assertEquals(60, arrangement.getNumberOfPassengersOnboard());
+            Assert.assertTrue(arrangement.getNumberOfSatisfiedPassengers() >= simple.getNumberOfSatisfiedPassengers());
+        }
+    }
+
+    private static InputDataParser parser(String data) {
+        return new InputDataParser(ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.jderda.flymanager.seats;
+
+import java.time.Duration;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.AnytimeSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class AnytimeAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public AnytimeAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = AnytimeSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .timeLimit(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Test
+    public void testProvesOptimalityWithEnoughTime() throws Exception {
+        job.call();
+        Assert.assertTrue(((AnytimeSeatArrangementsJob) job).isProvenOptimal());
+    }
+
+    @Test
+    public void testReturnsSimpleAssignmentWithoutTime() throws Exception {
+        AnytimeSeatArrangementsJob anytimeJob = AnytimeSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .timeLimit(Duration.ZERO)
+                .build();
+        SeatsArrangement expected = SimpleAssignSeatsJob.builder()
+                .inputData(inputData)
+                .build()
+                .call();
+        Assert.assertEquals(print(expected), print(anytimeJob.call()));
+        Assert.assertFalse(anytimeJob.isProvenOptimal());
+    }
+
+}
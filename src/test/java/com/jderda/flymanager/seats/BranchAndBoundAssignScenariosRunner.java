@@ -0,0 +1,25 @@
+package com.jderda.flymanager.seats;
+
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.jobs.BranchAndBoundSeatArrangementsJob;
+
+public class BranchAndBoundAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public BranchAndBoundAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = BranchAndBoundSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .build();
+    }
+
+    @Test
+    public void testSameSatisfactionAsAllPermutations() throws Exception {
+        assertSameSatisfactionAsAllPermutations();
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.jderda.flymanager.seats;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.cache.CachedSeatArrangementsJob;
+import com.jderda.flymanager.seats.cache.ResultCache;
+import com.jderda.flymanager.seats.domain.input.Group;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+import com.jderda.flymanager.seats.jobs.CertifiedSeatArrangementsJob;
+
+public class CachedAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    private ResultCache cache;
+
+    public CachedAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        cache = ResultCache.builder().build();
+        job = createJob(inputData, cache);
+    }
+
+    @Test
+    public void testEquivalentManifestIsServedFromCache() throws Exception {
+        SeatsArrangement original = job.call();
+        InputData relabelled = relabel(inputData);
+        CachedSeatArrangementsJob cachedJob = createJob(relabelled, cache);
+        SeatsArrangement result = cachedJob.call();
+        Assert.assertTrue(cachedJob.isCacheHit());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+
+        SeatsArrangement solved = Algorithm.BRANCH_AND_BOUND.createJob(relabelled).call();
+        Assert.assertEquals(original.getNumberOfSatisfiedPassengers(), result.getNumberOfSatisfiedPassengers());
+        Assert.assertEquals(solved.getNumberOfSatisfiedPassengers(), result.getNumberOfSatisfiedPassengers());
+        assertValidArrangement(result, relabelled);
+    }
+
+    @Test
+    public void testCacheIsKeptInFile() throws Exception {
+        File file = File.createTempFile("seats-cache", ".bin");
+        file.deleteOnExit();
+        ResultCache savedCache = ResultCache.builder().file(file.toPath()).build();
+        SeatsArrangement original = createJob(inputData, savedCache).call();
+        savedCache.save();
+
+        ResultCache loadedCache = ResultCache.builder().file(file.toPath()).build();
+        loadedCache.load();
+        CachedSeatArrangementsJob cachedJob = createJob(relabel(inputData), loadedCache);
+        SeatsArrangement result = cachedJob.call();
+        Assert.assertTrue(cachedJob.isCacheHit());
+        Assert.assertEquals(original.getNumberOfSatisfiedPassengers(), result.getNumberOfSatisfiedPassengers());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedArrangementIsEvicted() throws Exception {
+        ResultCache smallCache = ResultCache.builder().capacity(1).build();
+        createJob(inputData, smallCache).call();
+        createJob(withExtraGroup(inputData), smallCache).call();
+        Assert.assertEquals(1, smallCache.size());
+        CachedSeatArrangementsJob evictedJob = createJob(inputData, smallCache);
+        evictedJob.call();
+        Assert.assertFalse(evictedJob.isCacheHit());
+        Assert.assertEquals(0, smallCache.getHits());
+    }
+
+    @Test
+    public void testHeuristicResultIsNotCached() throws Exception {
+        for (Algorithm algorithm : Algorithm.values()) {
+            if (!algorithm.isExact()) {
+                CachedSeatArrangementsJob heuristicJob = createJob(inputData, cache, algorithm);
+                heuristicJob.call();
+                CachedSeatArrangementsJob relabelledJob = createJob(relabel(inputData), cache, algorithm);
+                SeatsArrangement result = relabelledJob.call();
+                Assert.assertFalse(relabelledJob.isCacheHit());
+                assertValidArrangement(result, relabel(inputData));
+            }
+        }
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void testGivenJobIsRunOnlyOnMiss() throws Exception {
+        CertifiedSeatArrangementsJob certifiedJob = CertifiedSeatArrangementsJob.builder().inputData(inputData).build();
+        SeatsArrangement original = createCertifiedJob(inputData, certifiedJob).call();
+        Assert.assertNotNull(certifiedJob.getUpperBound());
+
+        CertifiedSeatArrangementsJob notRunJob = CertifiedSeatArrangementsJob.builder().inputData(inputData).build();
+        CachedSeatArrangementsJob cachedJob = createCertifiedJob(relabel(inputData), notRunJob);
+        SeatsArrangement result = cachedJob.call();
+        Assert.assertTrue(cachedJob.isCacheHit());
+        Assert.assertNull(notRunJob.getUpperBound());
+        Assert.assertEquals(original.getNumberOfSatisfiedPassengers(), result.getNumberOfSatisfiedPassengers());
+    }
+
+    private CachedSeatArrangementsJob createCertifiedJob(InputData data, CertifiedSeatArrangementsJob certifiedJob) {
+        return CachedSeatArrangementsJob.builder()
+                .inputData(data)
+                .algorithm(Algorithm.CERTIFIED)
+                .job(certifiedJob)
+                .cache(cache)
+                .build();
+    }
+
+    private static CachedSeatArrangementsJob createJob(InputData data, ResultCache cache) {
+        return createJob(data, cache, Algorithm.BRANCH_AND_BOUND);
+    }
+
+    private static CachedSeatArrangementsJob createJob(InputData data, ResultCache cache, Algorithm algorithm) {
+        return CachedSeatArrangementsJob.builder()
+                .inputData(data)
+                .algorithm(algorithm)
+                .cache(cache)
+                .build();
+    }
+
+    /**
+     * The same manifest with different passenger ids, groups in reversed order and passengers within groups rotated,
+     * so that window-preferring passengers are in other places.
+     */
+    private static InputData relabel(InputData data) {
+        List<Group> groups = new ArrayList<>();
+        for (Group group : data.getGroups()) {
+            List<Passenger> passengers = group.getPassengers().stream()
+                    .map(passenger -> Passenger.builder()
+                            .id(passenger.getId() + 1000)
+                            .windowSeatPreference(passenger.hasWindowSeatPreference())
+                            .build())
+                    .collect(Collectors.toList());
+            Collections.rotate(passengers, 1);
+            groups.add(Group.builder().passengers(passengers).build());
+        }
+        Collections.reverse(groups);
+        return InputData.builder()
+                .groups(groups)
+                .numberOfRows(data.getNumberOfRows())
+                .numberOfSeatsInRow(data.getNumberOfSeatsInRow())
+                .build();
+    }
+
+    private static InputData withExtraGroup(InputData data) {
+        List<Group> groups = new ArrayList<>(data.getGroups());
+        groups.add(Group.builder()
+                .passengers(Collections.singletonList(Passenger.builder().id(0).windowSeatPreference(false).build()))
+                .build());
+        return InputData.builder()
+                .groups(groups)
+                .numberOfRows(data.getNumberOfRows())
+                .numberOfSeatsInRow(data.getNumberOfSeatsInRow())
+                .build();
+    }
+
+}
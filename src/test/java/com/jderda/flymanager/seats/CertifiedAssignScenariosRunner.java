@@ -0,0 +1,77 @@
+package com.jderda.flymanager.seats;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.CertifiedSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.CheckAllPossibileSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.SatisfactionUpperBound;
+
+public class CertifiedAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public CertifiedAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = CertifiedSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .build();
+    }
+
+    @Test
+    public void testSameSatisfactionAsAllPermutations() throws Exception {
+        assertSameSatisfactionAsAllPermutations();
+    }
+
+    @Test
+    public void testBoundCountsWindowSeatsOfEveryGroup() throws Exception {
+        //two window seats in every row, so only two out of three window-preferring passengers of one group are
+        //satisfied - even though the plane has four window seats
+        InputData data = InputData.of(new BufferedReader(new StringReader("4 2\n1W 2W 3W\n4\n")));
+        Assert.assertEquals(3, SatisfactionUpperBound.of(data).getSatisfiedPassengers());
+        CertifiedSeatArrangementsJob certifiedJob = CertifiedSeatArrangementsJob.builder()
+                .inputData(data)
+                .build();
+        SeatsArrangement result = certifiedJob.call();
+        Assert.assertTrue(certifiedJob.isExactSearchSkipped());
+        Assert.assertEquals(3, result.getNumberOfSatisfiedPassengers());
+    }
+
+    @Test
+    public void testOptimalArrangementIsWithinUpperBound() throws Exception {
+        for (long seed=1; seed<=20; seed++) {
+            InputData data = InputData.of(new BufferedReader(new StringReader(ManifestGenerator.builder()
+                    .numberOfSeatsInRow(4)
+                    .numberOfRows(2 + (int) (seed % 2))
+                    .oversubscription(1.3)
+                    .seed(seed)
+                    .build()
+                    .generate())));
+            SeatsArrangement optimal = CheckAllPossibileSeatArrangementsJob.builder()
+                    .inputData(data)
+                    .build()
+                    .call();
+            SatisfactionUpperBound upperBound = SatisfactionUpperBound.of(data);
+            Assert.assertTrue("Seed " + seed, upperBound.getGap(optimal) >= 0);
+
+            CertifiedSeatArrangementsJob certifiedJob = CertifiedSeatArrangementsJob.builder()
+                    .inputData(data)
+                    .build();
+            SeatsArrangement result = certifiedJob.call();
+            Assert.assertEquals("Seed " + seed,
+                    optimal.getNumberOfSatisfiedPassengers(), result.getNumberOfSatisfiedPassengers());
+            if (certifiedJob.isExactSearchSkipped()) {
+                Assert.assertEquals("Seed " + seed, 0, upperBound.getGap(result));
+            }
+        }
+    }
+
+}
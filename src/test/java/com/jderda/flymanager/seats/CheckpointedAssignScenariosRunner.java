@@ -0,0 +1,104 @@
+package com.jderda.flymanager.seats;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.jobs.CheckAllPossibileSeatArrangementsJob;
+
+public class CheckpointedAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    //large enough (80000 combinations, not counting orders of equivalent groups) for the search to check for
+    //interruption at least once
+    private static final String LARGER_FLIGHT = "4 3\n1W 2\n3\n4 5 6\n7W\n8 9\n10\n11W 12\n13 14\n15W\n16 17\n";
+
+    //groups of different sizes in two rows for nine - the only optimal combinations are the ones with a group of
+    //nine in one row and five small groups in the other, and the first of them is the one at which the search
+    //first checks for interruption, so it's the one saved in the checkpoint - a resumed search skipping it would
+    //return the other one (groups of ten or more never fit)
+    private static final String OPTIMUM_AT_CHECKPOINT = "9 2\n1 2 3 4 5 6 7 8 9W\n10 11 12 13 14 15 16 17 18 19\n"
+            + "20 21 22 23 24 25 26 27 28 29 30\n31\n32W\n33 34\n35W 36\n37 38 39 40 41 42 43 44 45 46 47 48\n"
+            + "49 50 51 52 53 54 55 56 57 58 59 60 61\n62 63 64\n65 66 67 68 69 70 71 72 73 74 75 76 77 78\n";
+
+    private File checkpointFile;
+
+    public CheckpointedAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        checkpointFile = newCheckpointFile();
+        job = createJob(inputData, checkpointFile, true);
+    }
+
+    @Test
+    public void testFinishedSearchIsResumedWithSameResult() throws Exception {
+        String expected = print(job.call());
+        Assert.assertTrue(checkpointFile.exists());
+        Assert.assertEquals(expected, print(createJob(inputData, checkpointFile, true).call()));
+    }
+
+    @Test
+    public void testInterruptedSearchIsResumedFromCheckpoint() throws Exception {
+        InputData data = InputData.of(new BufferedReader(new StringReader(LARGER_FLIGHT)));
+        File file = newCheckpointFile();
+        Thread.currentThread().interrupt();
+        try {
+            createJob(data, file, false).call();
+            Assert.fail("Search should have been interrupted");
+        } catch (InterruptedException e) {
+            Assert.assertTrue(file.exists());
+        } finally {
+            //the flag would leak to other tests if the search finished before checking it
+            Thread.interrupted();
+        }
+        String expected = print(CheckAllPossibileSeatArrangementsJob.builder().inputData(data).build().call());
+        Assert.assertEquals(expected, print(createJob(data, file, true).call()));
+    }
+
+    @Test
+    public void testCombinationSavedInCheckpointIsNotSkipped() throws Exception {
+        InputData data = InputData.of(new BufferedReader(new StringReader(OPTIMUM_AT_CHECKPOINT)));
+        File file = newCheckpointFile();
+        Thread.currentThread().interrupt();
+        try {
+            createJob(data, file, false).call();
+            Assert.fail("Search should have been interrupted");
+        } catch (InterruptedException e) {
+            Assert.assertTrue(file.exists());
+        } finally {
+            //the flag would leak to other tests if the search finished before checking it
+            Thread.interrupted();
+        }
+        String expected = print(CheckAllPossibileSeatArrangementsJob.builder().inputData(data).build().call());
+        Assert.assertEquals(expected, print(createJob(data, file, true).call()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCheckpointOfOtherInputIsNotResumed() throws Exception {
+        job.call();
+        InputData data = InputData.of(new BufferedReader(new StringReader(LARGER_FLIGHT)));
+        createJob(data, checkpointFile, true).call();
+    }
+
+    private static CheckAllPossibileSeatArrangementsJob createJob(InputData data, File file, boolean resume) {
+        return CheckAllPossibileSeatArrangementsJob.builder()
+                .inputData(data)
+                .checkpointFile(file.toPath())
+                .resume(resume)
+                .build();
+    }
+
+    private static File newCheckpointFile() {
+        File file = new File(System.getProperty("java.io.tmpdir"), "seats-" + System.nanoTime() + ".checkpoint");
+        file.deleteOnExit();
+        return file;
+    }
+
+}
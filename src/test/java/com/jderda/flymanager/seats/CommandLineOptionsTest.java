@@ -0,0 +1,37 @@
+package com.jderda.flymanager.seats;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.jobs.Algorithm;
+
+public class CommandLineOptionsTest {
+
+    @Test
+    public void testAlgorithmFlagDoesNotTakeNextArgument() {
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {"input.txt", "-server", "-all", "9090"});
+        Assert.assertEquals(Algorithm.ALL_PERMUTATIONS, options.getAlgorithm());
+        Assert.assertEquals(Optional.empty(), options.getValue("-server"));
+        Assert.assertEquals(Optional.empty(), options.getTimeLimit());
+    }
+
+    @Test
+    public void testTimeLimitIsGivenAfterAlgorithmFlag() {
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {"input.txt", "-batch", "-anytime", "500"});
+        Assert.assertEquals(Algorithm.ANYTIME, options.getAlgorithm());
+        Assert.assertEquals(Optional.of(Duration.ofMillis(500)), options.getTimeLimit());
+        Assert.assertEquals(Optional.empty(),
+                CommandLineOptions.parse(new String[] {"input.txt", "-portfolio"}).getTimeLimit());
+    }
+
+    @Test
+    public void testInvalidNumberIsFoundByFlag() {
+        CommandLineOptions options = CommandLineOptions.parse(new String[] {"input.txt", "-threads", "x", "-queue", "4"});
+        Assert.assertEquals(Optional.of("-threads"), options.findInvalidInt("-queue", "-threads"));
+        Assert.assertEquals(Optional.empty(), options.findInvalidInt("-queue", "-timeout"));
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.jderda.flymanager.seats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+/**
+ * Runs the simplified algorithm on generated inputs of realistic size (instead of test case files) and checks that 
+ * the result is a valid arrangement.
+ */
+public class GeneratedInputScenariosRunner extends AbstractInputScenariosRunner {
+
+    public GeneratedInputScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = SimpleAssignSeatsJob.builder()
+                .inputData(inputData)
+                .build();
+    }
+
+    @Test
+    public void testArrangementIsValid() throws Exception {
+        assertFilledArrangement(job.call(), inputData);
+    }
+
+    @Parameters(name = "{0}")
+    public static Iterable<Object[]> data() {
+        List<Object[]> testCases = new ArrayList<>();
+        for (long seed=1; seed<=3; seed++) {
+            testCases.add(generated("narrow body, oversubscribed", 6, 30, 1.2, seed));
+            testCases.add(generated("wide body, oversubscribed", 10, 80, 1.1, seed));
+            testCases.add(generated("half empty", 4, 20, 0.5, seed));
+            testCases.add(windowSaturated(seed));
+        }
+        return testCases;
+    }
+
+    private static Object[] generated(String name, int numberOfSeatsInRow, int numberOfRows, double oversubscription,
+            long seed) {
+        String manifest = ManifestGenerator.builder()
+                .numberOfSeatsInRow(numberOfSeatsInRow)
+                .numberOfRows(numberOfRows)
+                .oversubscription(oversubscription)
+                .seed(seed)
+                .build()
+                .generate();
+        return new Object[] {name + " (seed " + seed + ")", manifest};
+    }
+
+    /**
+     * Full narrow-body plane of singles and pairs with about as many window-preferring passengers as window seats.
+     */
+    private static Object[] windowSaturated(long seed) {
+        String manifest = ManifestGenerator.builder()
+                .numberOfSeatsInRow(6)
+                .numberOfRows(30)
+                .groupSizeWeights(new int[] {1, 1})
+                .windowSeatPreferenceRate(1.0/3)
+                .windowSeatPreferencePerPassenger(true)
+                .seed(seed)
+                .build()
+                .generate();
+        return new Object[] {"window-saturated (seed " + seed + ")", manifest};
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.jderda.flymanager.seats;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.IdenticalRowsSeatArrangementsJob;
+
+public class IdenticalRowsAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public IdenticalRowsAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = IdenticalRowsSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .build();
+    }
+
+    @Test
+    public void testSameSatisfactionAsAllPermutations() throws Exception {
+        assertSameSatisfactionAsAllPermutations();
+    }
+
+    @Test
+    public void testPlaneWithoutRows() throws Exception {
+        InputData data = InputData.of(new BufferedReader(new StringReader("4 0\n1 2\n3W\n")));
+        SeatsArrangement result = IdenticalRowsSeatArrangementsJob.builder()
+                .inputData(data)
+                .build()
+                .call();
+        Assert.assertTrue(result.getRows().isEmpty());
+        Assert.assertEquals(0, result.getNumberOfPassengersOnboard());
+    }
+
+}
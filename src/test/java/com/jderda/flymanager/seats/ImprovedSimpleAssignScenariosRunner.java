@@ -0,0 +1,39 @@
+package com.jderda.flymanager.seats;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.ImprovedSimpleAssignSeatsJob;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class ImprovedSimpleAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public ImprovedSimpleAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = ImprovedSimpleAssignSeatsJob.builder()
+                .inputData(inputData)
+                .build();
+    }
+
+    @Test
+    public void testNotWorseThanSimpleAssignment() throws Exception {
+        SeatsArrangement simple = SimpleAssignSeatsJob.builder()
+                .inputData(inputData)
+                .build()
+                .call();
+        SeatsArrangement result = job.call();
+        Assert.assertTrue(result.getNumberOfSatisfiedPassengers() >= simple.getNumberOfSatisfiedPassengers());
+        Assert.assertEquals(simple.getNumberOfPassengersOnboard(), result.getNumberOfPassengersOnboard());
+    }
+
+    @Test
+    public void testSameSatisfactionAsAllPermutations() throws Exception {
+        assertSameSatisfactionAsAllPermutations();
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.jderda.flymanager.seats;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.InputDataParser;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class InputDataParserScenariosRunner extends AbstractInputScenariosRunner {
+
+    private final String testData;
+
+    public InputDataParserScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+        this.testData = testData;
+    }
+
+    @Override
+    public void init() {
+        job = SimpleAssignSeatsJob.builder()
+                .compactInputData(parser(testData).readCompactInputData())
+                .build();
+    }
+
+    @Test
+    public void testParsesSameInputData() {
+        InputData parsed = parser(testData).readInputData();
+        Assert.assertEquals(inputData, parsed);
+    }
+
+    @Test
+    public void testParsesSameCompactInputData() {
+        CompactInputData parsed = parser(testData).readCompactInputData();
+        Assert.assertEquals(CompactInputData.of(inputData), parsed);
+    }
+
+    @Test
+    public void testReportsPositionOfInvalidPassenger() {
+        try {
+            parser(testData + "\n1 2x").readInputData();
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            int line = testData.split("\r\n|\r|\n", -1).length + 1;
+            Assert.assertTrue(e.getMessage(), e.getMessage().endsWith("at line " + line + ", column 4"));
+        }
+    }
+
+    private static InputDataParser parser(String data) {
+        return new InputDataParser(ByteBuffer.wrap(data.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.jderda.flymanager.seats;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+import com.jderda.flymanager.seats.metrics.SolverMetrics.Phase;
+
+public class MeasuredAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public MeasuredAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = SolverMetrics.getInstance().measure(Algorithm.BRANCH_AND_BOUND.createJob(inputData));
+    }
+
+    @Test
+    public void testSolveIsRecorded() throws Exception {
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        long flights = metrics.getFlightsSolved();
+        long solveCalls = metrics.getLatencies(Phase.SOLVE).getCount();
+        long candidates = metrics.getCandidatesExplored();
+        SeatsArrangement result = job.call();
+        Assert.assertNotNull(result);
+        Assert.assertTrue(metrics.getFlightsSolved() > flights);
+        Assert.assertTrue(metrics.getLatencies(Phase.SOLVE).getCount() > solveCalls);
+        Assert.assertTrue(metrics.getCandidatesExplored() > candidates);
+    }
+
+    @Test
+    public void testMetricsAreAvailableThroughJmx() throws Exception {
+        SolverMetrics.getInstance().register();
+        job.call();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        long flights = (Long) server.getAttribute(new ObjectName(SolverMetrics.OBJECT_NAME), "FlightsSolved");
+        Assert.assertTrue(flights > 0);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.jderda.flymanager.seats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.Group;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.OnlineSeatAssigner;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class OnlineAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public OnlineAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = () -> {
+            OnlineSeatAssigner assigner = createAssigner();
+            for (Group group : getGroupsInSimpleAssignmentOrder()) {
+                assigner.add(group);
+            }
+            return assigner.getSeatsArrangement();
+        };
+    }
+
+    @Test
+    public void testSameResultAsSimpleAssignment() throws Exception {
+        SeatsArrangement expected = SimpleAssignSeatsJob.builder()
+                .inputData(inputData)
+                .build()
+                .call();
+        Assert.assertEquals(print(expected), print(job.call()));
+    }
+
+    @Test
+    public void testGroupsAddedConcurrently() throws Exception {
+        OnlineSeatAssigner assigner = createAssigner();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (Group group : inputData.getGroups()) {
+            executor.submit(() -> assigner.add(group));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertFilledArrangement(assigner.getSeatsArrangement(), inputData);
+    }
+
+    private OnlineSeatAssigner createAssigner() {
+        return OnlineSeatAssigner.builder()
+                .numberOfRows(inputData.getNumberOfRows())
+                .numberOfSeatsInRow(inputData.getNumberOfSeatsInRow())
+                .build();
+    }
+
+    private List<Group> getGroupsInSimpleAssignmentOrder() {
+        //largest groups first, groups with window seat preferences after others of the same size
+        List<Group> groups = new ArrayList<>(inputData.getGroups());
+        groups.sort(Comparator.comparingInt(group -> -(4*group.getOccupiedSeats() - (int) group.getPassengers().stream()
+                .filter(Passenger::hasWindowSeatPreference)
+                .count())));
+        return groups;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.jderda.flymanager.seats;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.BranchAndBoundSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.ParallelSeatArrangementsJob;
+
+public class ParallelAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public ParallelAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = ParallelSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .parallelism(4)
+                .build();
+    }
+
+    @Test
+    public void testSameResultAsSerialSearch() throws Exception {
+        SeatsArrangement expected = BranchAndBoundSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .build()
+                .call();
+        Assert.assertEquals(print(expected), print(job.call()));
+    }
+
+}
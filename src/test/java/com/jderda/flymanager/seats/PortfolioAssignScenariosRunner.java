@@ -0,0 +1,112 @@
+package com.jderda.flymanager.seats;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+import com.jderda.flymanager.seats.jobs.PortfolioSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class PortfolioAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public PortfolioAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = PortfolioSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .timeLimit(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Test
+    public void testExactSolverProvesOptimality() throws Exception {
+        PortfolioSeatArrangementsJob portfolioJob = (PortfolioSeatArrangementsJob) job;
+        SeatsArrangement result = portfolioJob.call();
+        SeatsArrangement expected = Algorithm.BRANCH_AND_BOUND.createJob(inputData).call();
+        Assert.assertTrue(portfolioJob.isProvenOptimal());
+        Assert.assertEquals(expected.getNumberOfSatisfiedPassengers(), result.getNumberOfSatisfiedPassengers());
+    }
+
+    @Test
+    public void testHeuristicResultIsReturnedWhenTimeIsUp() throws Exception {
+        PortfolioSeatArrangementsJob portfolioJob = PortfolioSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .timeLimit(Duration.ZERO)
+                .build();
+        SeatsArrangement result = portfolioJob.call();
+        SeatsArrangement simple = SimpleAssignSeatsJob.builder()
+                .inputData(inputData)
+                .build()
+                .call();
+        Assert.assertTrue(portfolioJob.isProvenOptimal() 
+                || result.getNumberOfSatisfiedPassengers() >= simple.getNumberOfSatisfiedPassengers());
+    }
+
+    @Test(timeout = 10000)
+    public void testTimeoutIsReportedWhenNoSolverFinishes() throws Exception {
+        //the only thread of the executor is taken, so none of the solvers is even started
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> {
+            release.await();
+            return null;
+        });
+        try {
+            PortfolioSeatArrangementsJob.builder()
+                    .inputData(inputData)
+                    .timeLimit(Duration.ofMillis(10))
+                    .executor(executor)
+                    .build()
+                    .call();
+            Assert.fail("Job should fail when no solver finishes");
+        } catch (TimeoutException e) {
+            //expected
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExactSolversStopWhenInterrupted() throws Exception {
+        String manifest = ManifestGenerator.builder()
+                .numberOfSeatsInRow(10)
+                .numberOfRows(80)
+                .seed(1L)
+                .build()
+                .generate();
+        InputData largeInput = InputData.of(new BufferedReader(new StringReader(manifest)));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (Algorithm algorithm : new Algorithm[] {Algorithm.ALL_PERMUTATIONS, Algorithm.BRANCH_AND_BOUND, 
+                    Algorithm.PARALLEL, Algorithm.IDENTICAL_ROWS}) {
+                Callable<SeatsArrangement> exactJob = algorithm.createJob(largeInput);
+                Future<SeatsArrangement> future = executor.submit(exactJob);
+                Thread.sleep(100);
+                future.cancel(true);
+                //the next task can start only when the cancelled one has stopped
+                executor.submit(() -> null).get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
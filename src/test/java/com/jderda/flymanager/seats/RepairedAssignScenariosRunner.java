@@ -0,0 +1,196 @@
+package com.jderda.flymanager.seats;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.Group;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+import com.jderda.flymanager.seats.domain.input.Passenger;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.domain.output.SeatsRow;
+import com.jderda.flymanager.seats.jobs.RepairReport;
+import com.jderda.flymanager.seats.jobs.SeatsArrangementRepairer;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class RepairedAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    public RepairedAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        //first group cancels and comes back
+        job = () -> {
+            SeatsArrangementRepairer repairer = createRepairer(inputData);
+            List<Integer> firstGroup = getPassengerIds(inputData.getGroups().get(0));
+            repairer.repair(firstGroup, Collections.emptyList());
+            repairer.repair(Collections.emptyList(), firstGroup);
+            return repairer.getSeatsArrangement();
+        };
+    }
+
+    @Test
+    public void testNothingChangesWithoutChanges() throws Exception {
+        SeatsArrangement expected = SimpleAssignSeatsJob.builder()
+                .inputData(inputData)
+                .build()
+                .call();
+        SeatsArrangementRepairer repairer = createRepairer(inputData);
+        RepairReport report = repairer.repair(Collections.emptyList(), Collections.emptyList());
+        Assert.assertEquals(0, report.getRepairedRows());
+        Assert.assertEquals(print(expected), print(repairer.getSeatsArrangement()));
+    }
+
+    @Test
+    public void testArrangementIsReadAsPrinted() throws Exception {
+        SeatsArrangement expected = SimpleAssignSeatsJob.builder()
+                .inputData(inputData)
+                .build()
+                .call();
+        SeatsArrangement read = SeatsArrangement.of(new BufferedReader(new StringReader(print(expected))), inputData);
+        Assert.assertEquals(expected.getNumberOfSatisfiedPassengers(), read.getNumberOfSatisfiedPassengers());
+        Assert.assertEquals(expected.getNumberOfPassengersOnboard(), read.getNumberOfPassengersOnboard());
+    }
+
+    @Test
+    public void testOnlyRepairedRowsChange() throws Exception {
+        for (Group group : inputData.getGroups()) {
+            SeatsArrangementRepairer repairer = createRepairer(inputData);
+            List<Set<Integer>> rowsBefore = getPassengerIdsInRows(repairer.getSeatsArrangement());
+            List<String> printedRowsBefore = printRows(repairer.getSeatsArrangement());
+            List<Integer> cancelled = getPassengerIds(group);
+            RepairReport report = repairer.repair(cancelled, Collections.emptyList());
+            List<Set<Integer>> rowsAfter = getPassengerIdsInRows(repairer.getSeatsArrangement());
+            List<String> printedRowsAfter = printRows(repairer.getSeatsArrangement());
+            //rows the group leaves are repaired, and so are rows that passengers moved from to fill them
+            Set<Integer> repairedRows = new HashSet<>();
+            for (int row=0; row<rowsBefore.size(); row++) {
+                for (Integer id : rowsBefore.get(row)) {
+                    if (cancelled.contains(id) || isSeatedOutsideOf(id, row, rowsAfter)) {
+                        repairedRows.add(row);
+                    }
+                }
+            }
+            for (int row=0; row<rowsBefore.size(); row++) {
+                if (!repairedRows.contains(row)) {
+                    Assert.assertEquals(printedRowsBefore.get(row), printedRowsAfter.get(row));
+                }
+            }
+            Assert.assertEquals(repairedRows.size(), report.getRepairedRows());
+            for (Integer id : cancelled) {
+                Assert.assertTrue(rowsAfter.stream().noneMatch(row -> row.contains(id)));
+            }
+        }
+    }
+
+    @Test
+    public void testRepairedArrangementIsCloseToSolvingAgain() throws Exception {
+        long repairedSatisfaction = 0;
+        long resolvedSatisfaction = 0;
+        for (long seed=1; seed<=20; seed++) {
+            Random random = new Random(seed);
+            InputData data = InputData.of(new BufferedReader(new StringReader(ManifestGenerator.builder()
+                    .numberOfSeatsInRow(4 + (int) (seed % 5))
+                    .numberOfRows(10 + (int) seed)
+                    .oversubscription(0.8 + 0.05*seed)
+                    .seed(seed)
+                    .build()
+                    .generate())));
+            SeatsArrangementRepairer repairer = createRepairer(data);
+            Set<Integer> cancelled = new HashSet<>();
+            for (int step=0; step<5; step++) {
+                //whole group cancels, or one of its passengers doesn't show up
+                Group group = data.getGroups().get(random.nextInt(data.getGroups().size()));
+                List<Integer> removed = random.nextBoolean()
+                        ? getPassengerIds(group)
+                        : Collections.singletonList(group.getPassengers().get(0).getId());
+                List<Integer> added = new ArrayList<>();
+                if (step == 4 && !cancelled.isEmpty()) {
+                    added.add(cancelled.iterator().next());
+                }
+                repairer.repair(removed, added);
+                cancelled.addAll(removed);
+                cancelled.removeAll(added);
+
+                SeatsArrangement repaired = repairer.getSeatsArrangement();
+                InputData remaining = withoutPassengers(data, cancelled);
+                assertValidArrangement(repaired, remaining);
+                SeatsArrangement resolved = SimpleAssignSeatsJob.builder()
+                        .inputData(remaining)
+                        .build()
+                        .call();
+                Assert.assertEquals(resolved.getNumberOfPassengersOnboard(), repaired.getNumberOfPassengersOnboard());
+                repairedSatisfaction += repaired.getNumberOfSatisfiedPassengers();
+                resolvedSatisfaction += resolved.getNumberOfSatisfiedPassengers();
+            }
+        }
+        Assert.assertTrue(repairedSatisfaction >= 0.99 * resolvedSatisfaction);
+    }
+
+    private static InputData withoutPassengers(InputData data, Set<Integer> removed) {
+        List<Group> groups = new ArrayList<>();
+        for (Group group : data.getGroups()) {
+            List<Passenger> passengers = group.getPassengers().stream()
+                    .filter(passenger -> !removed.contains(passenger.getId()))
+                    .collect(Collectors.toList());
+            if (!passengers.isEmpty()) {
+                groups.add(new Group(passengers));
+            }
+        }
+        return InputData.builder()
+                .groups(groups)
+                .numberOfRows(data.getNumberOfRows())
+                .numberOfSeatsInRow(data.getNumberOfSeatsInRow())
+                .build();
+    }
+
+    private static SeatsArrangementRepairer createRepairer(InputData data) throws Exception {
+        return SeatsArrangementRepairer.builder()
+                .inputData(data)
+                .seatsArrangement(SimpleAssignSeatsJob.builder().inputData(data).build().call())
+                .build();
+    }
+
+    private static List<Integer> getPassengerIds(Group group) {
+        return group.getPassengers().stream().map(Passenger::getId).collect(Collectors.toList());
+    }
+
+    private static boolean isSeatedOutsideOf(Integer id, int row, List<Set<Integer>> rows) {
+        for (int otherRow=0; otherRow<rows.size(); otherRow++) {
+            if (otherRow != row && rows.get(otherRow).contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Set<Integer>> getPassengerIdsInRows(SeatsArrangement arrangement) {
+        return arrangement.getRows().stream()
+                .map(row -> row.getPassengers().stream().map(Passenger::getId).collect(Collectors.toSet()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> printRows(SeatsArrangement arrangement) throws Exception {
+        List<String> rows = new ArrayList<>();
+        for (SeatsRow row : arrangement.getRows()) {
+            StringWriter writer = new StringWriter();
+            row.print(writer);
+            rows.add(writer.toString().trim());
+        }
+        return rows;
+    }
+
+}
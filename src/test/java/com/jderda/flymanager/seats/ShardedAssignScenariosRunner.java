@@ -0,0 +1,62 @@
+package com.jderda.flymanager.seats;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.jobs.CheckAllPossibileSeatArrangementsJob;
+import com.jderda.flymanager.seats.jobs.ShardResult;
+
+public class ShardedAssignScenariosRunner extends AbstractInputScenariosRunner {
+
+    private static final int NUMBER_OF_SHARDS = 3;
+
+    public ShardedAssignScenariosRunner(String testName, String testData) {
+        super(testName, testData);
+    }
+
+    @Override
+    public void init() {
+        job = () -> mergeShards(NUMBER_OF_SHARDS);
+    }
+
+    @Test
+    public void testMergedShardsAreSameAsSingleSearch() throws Exception {
+        String expected = print(CheckAllPossibileSeatArrangementsJob.builder().inputData(inputData).build().call());
+        //more shards than prefixes leaves some of them with nothing to check
+        for (int numberOfShards : new int[] {1, 2, 5, 100}) {
+            Assert.assertEquals("Shards: " + numberOfShards, expected, print(mergeShards(numberOfShards)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingShardIsNotMerged() throws Exception {
+        CheckAllPossibileSeatArrangementsJob search = CheckAllPossibileSeatArrangementsJob.builder()
+                .inputData(inputData)
+                .build();
+        ShardResult.merge(Collections.singletonList(search.searchShard(1, 2)));
+    }
+
+    /**
+     * Searches every shard separately and passes its result through a file, as if they were separate processes.
+     */
+    private SeatsArrangement mergeShards(int numberOfShards) throws Exception {
+        List<ShardResult> results = new ArrayList<>();
+        for (int shard=numberOfShards; shard>=1; shard--) {
+            CheckAllPossibileSeatArrangementsJob search = CheckAllPossibileSeatArrangementsJob.builder()
+                    .inputData(inputData)
+                    .build();
+            File file = File.createTempFile("seats", ".shard");
+            file.deleteOnExit();
+            search.searchShard(shard, numberOfShards).write(file.toPath());
+            results.add(ShardResult.read(file.toPath()));
+        }
+        return ShardResult.merge(results).toSeatsArrangement(inputData);
+    }
+
+}
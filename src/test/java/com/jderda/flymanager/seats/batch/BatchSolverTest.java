@@ -0,0 +1,110 @@
+package com.jderda.flymanager.seats.batch;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.jobs.Algorithm;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class BatchSolverTest {
+
+    private static final String EXAMPLE = "4 4\n1W 2 3\n4 5 6 7\n8\n9 10 11W\n12W\n13 14\n15 16\n";
+    private static final String OTHER_EXAMPLE = "3 2\n1 2\n3W\n4 5 6\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testArrangementsAreWrittenNextToInputs() throws Exception {
+        Path first = write(folder.getRoot(), "first.txt", EXAMPLE);
+        Path second = write(folder.getRoot(), "second.txt", OTHER_EXAMPLE);
+        BatchSummary summary = createSolver(null).solve(Arrays.asList(first, second));
+        Assert.assertEquals(2, summary.getSolved());
+        Assert.assertEquals(0, summary.getFailed());
+        Assert.assertEquals(solve(EXAMPLE), read(folder.getRoot(), "first.out"));
+        Assert.assertEquals(solve(OTHER_EXAMPLE), read(folder.getRoot(), "second.out"));
+    }
+
+    @Test
+    public void testArrangementsAreWrittenToOutputDirectory() throws Exception {
+        File inputs = folder.newFolder("inputs");
+        File outputs = folder.newFolder("outputs");
+        Path input = write(inputs, "flight.txt", EXAMPLE);
+        createSolver(outputs.toPath()).solve(Arrays.asList(input));
+        Assert.assertEquals(solve(EXAMPLE), read(outputs, "flight.out"));
+        Assert.assertFalse(new File(inputs, "flight.out").exists());
+    }
+
+    @Test
+    public void testInvalidFlightDoesNotStopOthers() throws Exception {
+        Path invalid = write(folder.getRoot(), "a-invalid.txt", "4 x\n1 2\n");
+        Path missing = folder.getRoot().toPath().resolve("b-missing.txt");
+        Path valid = write(folder.getRoot(), "c-valid.txt", EXAMPLE);
+        BatchSummary summary = createSolver(null).solve(Arrays.asList(invalid, missing, valid));
+        Assert.assertEquals(1, summary.getSolved());
+        Assert.assertEquals(2, summary.getFailed());
+        Assert.assertEquals(solve(EXAMPLE), read(folder.getRoot(), "c-valid.out"));
+        Assert.assertFalse(new File(folder.getRoot(), "a-invalid.out").exists());
+    }
+
+    @Test
+    public void testOnlyInputFilesAreFoundInDirectory() throws Exception {
+        Path input = write(folder.getRoot(), "flight.txt", EXAMPLE);
+        write(folder.getRoot(), "flight.out", solve(EXAMPLE));
+        write(folder.getRoot(), "flight.txt.1-of-2.shard", "");
+        write(folder.getRoot(), ".flight.txt", EXAMPLE);
+        write(folder.getRoot(), "notes.md", "");
+        folder.newFolder("nested.txt");
+        List<Path> inputs = BatchSolver.findInputs(folder.getRoot().getPath());
+        Assert.assertEquals(Arrays.asList(input), inputs);
+    }
+
+    @Test
+    public void testInputFilesAreFoundByGlob() throws Exception {
+        Path input = write(folder.getRoot(), "flight.in", EXAMPLE);
+        write(folder.getRoot(), "flight.txt", EXAMPLE);
+        List<Path> inputs = BatchSolver.findInputs(new File(folder.getRoot(), "*.in").getPath());
+        Assert.assertEquals(Arrays.asList(input), inputs);
+    }
+
+    private static BatchSolver createSolver(Path outputDirectory) {
+        return BatchSolver.builder()
+                .algorithm(Algorithm.SIMPLE)
+                .threads(2)
+                .outputDirectory(outputDirectory)
+                .build();
+    }
+
+    private static String solve(String input) throws Exception {
+        StringWriter writer = new StringWriter();
+        SimpleAssignSeatsJob.builder()
+                .inputData(InputData.of(new BufferedReader(new StringReader(input))))
+                .build()
+                .call()
+                .print(writer);
+        return writer.toString();
+    }
+
+    private static Path write(File directory, String fileName, String content) throws IOException {
+        return Files.write(new File(directory, fileName).toPath(), content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String read(File directory, String fileName) throws IOException {
+        return new String(Files.readAllBytes(new File(directory, fileName).toPath()), StandardCharsets.US_ASCII);
+    }
+
+}
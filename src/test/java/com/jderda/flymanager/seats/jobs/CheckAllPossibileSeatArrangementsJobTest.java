@@ -0,0 +1,76 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+
+public class CheckAllPossibileSeatArrangementsJobTest {
+
+    private static final int NUMBER_OF_SHARDS = 3;
+
+    @Test
+    public void testSkippingEquivalentGroupsDoesNotChangeResult() throws Exception {
+        for (long seed=1; seed<=40; seed++) {
+            InputData data = generate(seed);
+            String expected = print(createJob(data).permutingEquivalentGroups().call());
+            Assert.assertEquals(expected, print(createJob(data).call()));
+
+            List<ShardResult> shards = new ArrayList<>();
+            for (int shard=1; shard<=NUMBER_OF_SHARDS; shard++) {
+                shards.add(createJob(data).searchShard(shard, NUMBER_OF_SHARDS));
+            }
+            Assert.assertEquals(expected, print(ShardResult.merge(shards).toSeatsArrangement(data)));
+        }
+    }
+
+    @Test
+    public void testEquivalentGroupsAreNotPermuted() throws Exception {
+        //four single passengers in two rows - every row (or none) for each of them, or only how many are in each
+        InputData data = parse("2 2\n1\n2\n3\n4\n");
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        long candidates = metrics.getCandidatesExplored();
+        createJob(data).permutingEquivalentGroups().call();
+        Assert.assertEquals(81, metrics.getCandidatesExplored() - candidates);
+        candidates = metrics.getCandidatesExplored();
+        createJob(data).call();
+        Assert.assertEquals(15, metrics.getCandidatesExplored() - candidates);
+    }
+
+    private static CheckAllPossibileSeatArrangementsJob createJob(InputData data) {
+        return CheckAllPossibileSeatArrangementsJob.builder()
+                .inputData(data)
+                .build();
+    }
+
+    private static InputData generate(long seed) throws Exception {
+        return parse(ManifestGenerator.builder()
+                .numberOfSeatsInRow(3 + (int) (seed % 3))
+                .numberOfRows(2 + (int) (seed % 2))
+                .windowSeatPreferenceRate(0.5)
+                .oversubscription(1.2)
+                .seed(seed)
+                .build()
+                .generate());
+    }
+
+    private static InputData parse(String manifest) throws Exception {
+        return InputData.of(new BufferedReader(new StringReader(manifest)));
+    }
+
+    private static String print(SeatsArrangement arrangement) throws Exception {
+        StringWriter writer = new StringWriter();
+        arrangement.print(writer);
+        return writer.toString();
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.jderda.flymanager.seats.jobs;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.CompactInputData;
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.output.SeatsArrangement;
+import com.jderda.flymanager.seats.metrics.SolverMetrics;
+
+public class LocalSearchImproverTest {
+
+    private static final String FLIGHT = "4 2\n1 2\n3 4\n5 6 7 8\n";
+
+    @Test
+    public void testArrangementOfSameFlightIsImproved() throws Exception {
+        SeatsArrangement arrangement = solve(FLIGHT);
+        SeatsArrangement improved = createImprover(FLIGHT).improve(arrangement);
+        Assert.assertEquals(8, improved.getNumberOfSatisfiedPassengers());
+    }
+
+    @Test
+    public void testSearchStopsAtDeadline() throws Exception {
+        //deadline that has already passed - only the iterations before the first check are done
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        long candidates = metrics.getCandidatesExplored();
+        SeatsArrangement improved = LocalSearchImprover.builder()
+                .inputData(CompactInputData.of(parse(FLIGHT)))
+                .deadline(System.nanoTime())
+                .build()
+                .improve(solve(FLIGHT));
+        Assert.assertEquals(256, metrics.getCandidatesExplored() - candidates);
+        Assert.assertEquals(8, improved.getNumberOfSatisfiedPassengers());
+    }
+
+    @Test
+    public void testNumberOfIterationsOverridesDeadline() throws Exception {
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        long candidates = metrics.getCandidatesExplored();
+        LocalSearchImprover.builder()
+                .inputData(CompactInputData.of(parse(FLIGHT)))
+                .iterations(1000L)
+                .deadline(System.nanoTime())
+                .build()
+                .improve(solve(FLIGHT));
+        Assert.assertEquals(1000, metrics.getCandidatesExplored() - candidates);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrangementWithOtherGroupsIsRejected() throws Exception {
+        //first passengers of groups are the same, but passengers 3 and 4 are seated with the first group
+        createImprover(FLIGHT).improve(solve("4 2\n1 2 3 4\n5 6\n7 8\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArrangementWithOtherPassengersIsRejected() throws Exception {
+        createImprover(FLIGHT).improve(solve("4 2\n11 12\n13 14\n15 16 17 18\n"));
+    }
+
+    private static LocalSearchImprover createImprover(String flight) throws Exception {
+        return LocalSearchImprover.builder()
+                .inputData(CompactInputData.of(parse(flight)))
+                .build();
+    }
+
+    private static SeatsArrangement solve(String flight) throws Exception {
+        return SimpleAssignSeatsJob.builder()
+                .inputData(parse(flight))
+                .build()
+                .call();
+    }
+
+    private static InputData parse(String flight) throws Exception {
+        return InputData.of(new BufferedReader(new StringReader(flight)));
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.jderda.flymanager.seats.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos=1; nanos<=1000; nanos++) {
+            histogram.record(nanos*1000);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        long median = histogram.getPercentile(50);
+        long p99 = histogram.getPercentile(99);
+        Assert.assertTrue(median >= 500_000 && median <= 500_000*1.25);
+        Assert.assertTrue(p99 >= 990_000 && p99 <= 990_000*1.25);
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.jderda.flymanager.seats.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jderda.flymanager.seats.domain.input.InputData;
+import com.jderda.flymanager.seats.domain.input.ManifestGenerator;
+import com.jderda.flymanager.seats.jobs.SimpleAssignSeatsJob;
+
+public class SeatsArrangementServerTest {
+
+    private static final String EXAMPLE = "4 4\n1W 2 3\n4 5 6 7\n8\n9 10 11W\n12W\n13 14\n15 16\n";
+
+    //far too many combinations for the exhaustive search to finish while the test runs
+    private static final String LARGE_FLIGHT = ManifestGenerator.builder()
+            .numberOfSeatsInRow(4)
+            .numberOfRows(10)
+            .seed(1L)
+            .build()
+            .generate();
+
+    private SeatsArrangementServer server;
+
+    @After
+    public void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testHealth() throws Exception {
+        startServer(1, 1, 10000, null);
+        Response response = request("GET", "/health", null, 0);
+        Assert.assertEquals(200, response.status);
+        Assert.assertEquals("OK\n", response.body);
+    }
+
+    @Test
+    public void testSolveReturnsPrintedArrangement() throws Exception {
+        startServer(1, 1, 10000, null);
+        StringWriter expected = new StringWriter();
+        SimpleAssignSeatsJob.builder()
+                .inputData(InputData.of(new BufferedReader(new StringReader(EXAMPLE))))
+                .build()
+                .call()
+                .print(expected);
+        Response response = request("POST", "/solve", EXAMPLE, 0);
+        Assert.assertEquals(200, response.status);
+        Assert.assertEquals(expected.toString(), response.body);
+        Assert.assertEquals(200, request("POST", "/solve?algorithm=dp", EXAMPLE, 0).status);
+    }
+
+    @Test
+    public void testInvalidRequests() throws Exception {
+        startServer(1, 1, 10000, 64);
+        Assert.assertEquals(405, request("GET", "/solve", null, 0).status);
+        Assert.assertEquals(400, request("POST", "/solve?algorithm=unknown", EXAMPLE, 0).status);
+        Assert.assertEquals(400, request("POST", "/solve", "4 x\n", 0).status);
+        Assert.assertEquals(413, request("POST", "/solve", LARGE_FLIGHT, 0).status);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        startServer(1, 1, 100, null);
+        Assert.assertEquals(504, request("POST", "/solve?algorithm=all", LARGE_FLIGHT, 0).status);
+    }
+
+    @Test
+    public void testFullQueueIsRejected() throws Exception {
+        startServer(1, 1, 60000, null);
+        //requests that are accepted keep the only worker and queue slot busy, the one after them is rejected
+        int status = 0;
+        for (int i=0; i<10 && status != 503; i++) {
+            status = request("POST", "/solve?algorithm=all", LARGE_FLIGHT, 500).status;
+        }
+        Assert.assertEquals(503, status);
+    }
+
+    private void startServer(int threads, int queueSize, long timeoutMillis, Integer maxRequestSize) throws IOException {
+        server = SeatsArrangementServer.builder()
+                .port(0)
+                .threads(threads)
+                .queueSize(queueSize)
+                .timeoutMillis(timeoutMillis)
+                .maxRequestSize(maxRequestSize)
+                .build();
+        server.start();
+    }
+
+    /**
+     * Sends the request, status is 0 when there's no response within given time (0 to wait as long as it takes).
+     */
+    private Response request(String method, String path, String body, int readTimeoutMillis) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+                .openConnection();
+        connection.setRequestMethod(method);
+        connection.setReadTimeout(readTimeoutMillis);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        try {
+            int status = connection.getResponseCode();
+            InputStream stream = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+            return new Response(status, (stream != null) ? IOUtils.toString(stream, StandardCharsets.US_ASCII) : "");
+        } catch (SocketTimeoutException e) {
+            return new Response(0, "");
+        }
+    }
+
+    private static class Response {
+
+        private final int status;
+        private final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+}